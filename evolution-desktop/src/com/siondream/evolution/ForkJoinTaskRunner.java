@@ -0,0 +1,67 @@
+package com.siondream.evolution;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.badlogic.gdx.utils.Array;
+import com.siondream.engine.TaskRunner;
+
+public class ForkJoinTaskRunner implements TaskRunner {
+
+	private ForkJoinPool m_pool;
+	
+	public ForkJoinTaskRunner() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+	
+	public ForkJoinTaskRunner(int parallelism) {
+		m_pool = new ForkJoinPool(parallelism);
+	}
+	
+	@Override
+	public void run(Array<Runnable> tasks) {
+		if (tasks.size == 0) {
+			return;
+		}
+		
+		// Not worth waking up the workers for a single task
+		if (tasks.size == 1) {
+			tasks.get(0).run();
+			return;
+		}
+		
+		m_pool.invoke(new RangeAction(tasks, 0, tasks.size));
+	}
+
+	@Override
+	public void dispose() {
+		m_pool.shutdown();
+	}
+	
+	// Splits the task range in halves until there is a single task left
+	private static class RangeAction extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
+		private Array<Runnable> m_tasks;
+		private int m_begin;
+		private int m_end;
+		
+		public RangeAction(Array<Runnable> tasks, int begin, int end) {
+			m_tasks = tasks;
+			m_begin = begin;
+			m_end = end;
+		}
+		
+		@Override
+		protected void compute() {
+			if (m_end - m_begin == 1) {
+				m_tasks.get(m_begin).run();
+				return;
+			}
+			
+			int middle = (m_begin + m_end) >>> 1;
+			invokeAll(new RangeAction(m_tasks, m_begin, middle),
+					  new RangeAction(m_tasks, middle, m_end));
+		}
+	}
+}
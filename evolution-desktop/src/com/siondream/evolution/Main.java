@@ -13,6 +13,9 @@ public class Main {
 		
 		Evolution evolution = new Evolution();
 		Evolution.setPlatformResolver(new DesktopResolver());
+		Evolution.setTaskRunner(new ForkJoinTaskRunner());
+		Evolution.setSimulationRunner(new ThreadSimulationRunner());
+		Evolution.setAllocationCounter(ThreadAllocationCounter.create());
 		
 		new LwjglApplication(evolution, cfg);
 	}
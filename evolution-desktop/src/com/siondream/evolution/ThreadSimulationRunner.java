@@ -0,0 +1,84 @@
+package com.siondream.evolution;
+
+import java.util.concurrent.Semaphore;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.siondream.engine.SimulationRunner;
+
+// A single thread that sleeps until the GL thread hands it a step
+// The semaphores make everything written before start visible to the step and the other way round
+public class ThreadSimulationRunner implements SimulationRunner, Runnable {
+
+	private Semaphore m_started = new Semaphore(0);
+	private Semaphore m_finished = new Semaphore(0);
+	private Thread m_thread = null;
+	private Runnable m_step = null;
+	private Throwable m_error = null;
+	private boolean m_running = false;
+
+	@Override
+	public void start(Runnable step) {
+		if (m_running) {
+			throw new GdxRuntimeException("ThreadSimulationRunner: the previous step has not finished");
+		}
+
+		// Started on first use, launchers can create the runner whether the setting is on or not
+		if (m_thread == null) {
+			m_thread = new Thread(this, "Simulation");
+			m_thread.setDaemon(true);
+			m_thread.start();
+		}
+
+		m_step = step;
+		m_running = true;
+		m_started.release();
+	}
+
+	@Override
+	public void finish() {
+		if (!m_running) {
+			return;
+		}
+
+		m_finished.acquireUninterruptibly();
+		m_running = false;
+		m_step = null;
+
+		if (m_error != null) {
+			Throwable error = m_error;
+			m_error = null;
+			throw new GdxRuntimeException("ThreadSimulationRunner: simulation step failed", error);
+		}
+	}
+
+	@Override
+	public void run() {
+		while (true) {
+			try {
+				m_started.acquire();
+			}
+			catch (InterruptedException e) {
+				return;
+			}
+
+			try {
+				m_step.run();
+			}
+			catch (Throwable t) {
+				m_error = t;
+			}
+
+			m_finished.release();
+		}
+	}
+
+	@Override
+	public void dispose() {
+		finish();
+
+		if (m_thread != null) {
+			m_thread.interrupt();
+			m_thread = null;
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package com.siondream.evolution;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.Logger;
+import com.siondream.engine.Entity;
+import com.siondream.engine.EntityManager;
+
+// Usage: EntitySlotCheck [entities per level] [level resets]
+// Fills the entity manager past its pool size and clears it over and over, slot ids have to be reused
+public class EntitySlotCheck extends Evolution {
+
+	private int m_entities;
+	private int m_resets;
+
+	public EntitySlotCheck(int entities, int resets) {
+		m_entities = entities;
+		m_resets = resets;
+	}
+
+	@Override
+	public void create() {
+		super.create();
+
+		// Every obtain and free logs at info level
+		m_logger.setLevel(Logger.ERROR);
+
+		EntityManager entityManager = getEntityManager();
+		int highestID = 0;
+
+		for (int reset = 0; reset < m_resets; ++reset) {
+			for (int i = 0; i < m_entities; ++i) {
+				Entity entity = entityManager.obtain();
+				highestID = Math.max(highestID, entity.getID());
+			}
+
+			entityManager.clear();
+		}
+
+		m_logger.setLevel(Logger.DEBUG);
+
+		if (highestID > m_entities) {
+			throw new GdxRuntimeException("EntitySlotCheck: slot ids leaked, reached " + highestID + " with " + m_entities + " live entities");
+		}
+
+		Gdx.app.log("EntitySlotCheck", m_resets + " resets of " + m_entities + " entities, highest slot id " + highestID);
+		Gdx.app.exit();
+	}
+
+	public static void main(String[] args) {
+		HeadlessApplicationConfiguration cfg = new HeadlessApplicationConfiguration();
+		cfg.frames = 1;
+
+		int entities = args.length > 0? Integer.parseInt(args[0]) : 300;
+		int resets = args.length > 1? Integer.parseInt(args[1]) : 1000;
+
+		Evolution.setPlatformResolver(new HeadlessResolver());
+
+		new HeadlessApplication(new EntitySlotCheck(entities, resets), cfg).run();
+	}
+}
@@ -0,0 +1,206 @@
+package com.siondream.evolution;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.ApplicationListener;
+import com.badlogic.gdx.Audio;
+import com.badlogic.gdx.Files;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Graphics;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.Preferences;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+
+// Runs the listener on the calling thread as fast as the CPU allows, no window, GL context or sound
+public class HeadlessApplication implements Application {
+
+	private ApplicationListener m_listener;
+	private HeadlessApplicationConfiguration m_config;
+	private HeadlessGraphics m_graphics;
+	private Audio m_audio;
+	private Input m_input;
+	private Files m_files;
+	private int m_logLevel;
+	private boolean m_running = true;
+	private int m_frames = 0;
+	private Array<Runnable> m_runnables = new Array<Runnable>();
+	private Array<Runnable> m_executed = new Array<Runnable>();
+
+	public HeadlessApplication(ApplicationListener listener, HeadlessApplicationConfiguration config) {
+		// Box2D and pixmaps still need the native library
+		GdxNativesLoader.load();
+		
+		m_listener = listener;
+		m_config = config;
+		m_logLevel = config.logLevel;
+		m_graphics = new HeadlessGraphics(config.width, config.height);
+		m_audio = NoOp.create(Audio.class);
+		m_input = new HeadlessInput();
+		m_files = new HeadlessFiles();
+		
+		Gdx.app = this;
+		Gdx.graphics = m_graphics;
+		Gdx.audio = m_audio;
+		Gdx.input = m_input;
+		Gdx.files = m_files;
+		Gdx.gl = m_graphics.getGLCommon();
+		Gdx.gl10 = m_graphics.getGL10();
+		Gdx.gl11 = null;
+		Gdx.gl20 = null;
+		Gdx.glu = m_graphics.getGLU();
+		
+		// The desktop build relies on GL20 for non power of two textures, uploads go nowhere here anyway
+		Texture.setEnforcePotImages(false);
+	}
+
+	// Blocks until the configured frames have run or exit() is called
+	public void run() {
+		m_listener.create();
+		m_listener.resize(m_config.width, m_config.height);
+		
+		long start = System.nanoTime();
+		long last = start;
+		
+		while (m_running && (m_config.frames <= 0 || m_frames < m_config.frames)) {
+			executeRunnables();
+			
+			long time = System.nanoTime();
+			m_graphics.update(m_config.deltaTime > 0.0f? m_config.deltaTime : (time - last) / 1000000000.0f);
+			last = time;
+			
+			m_listener.render();
+			++m_frames;
+		}
+		
+		m_listener.pause();
+		m_listener.dispose();
+		
+		float seconds = (System.nanoTime() - start) / 1000000000.0f;
+		log("HeadlessApplication", m_frames + " frames in " + seconds + "s (" + (m_frames / Math.max(seconds, 0.001f)) + " frames per second)");
+	}
+
+	public int getFrames() {
+		return m_frames;
+	}
+
+	@Override
+	public Graphics getGraphics() {
+		return m_graphics;
+	}
+
+	@Override
+	public Audio getAudio() {
+		return m_audio;
+	}
+
+	@Override
+	public Input getInput() {
+		return m_input;
+	}
+
+	@Override
+	public Files getFiles() {
+		return m_files;
+	}
+
+	@Override
+	public void log(String tag, String message) {
+		if (m_logLevel >= LOG_INFO) {
+			System.out.println(tag + ": " + message);
+		}
+	}
+
+	@Override
+	public void log(String tag, String message, Exception exception) {
+		if (m_logLevel >= LOG_INFO) {
+			System.out.println(tag + ": " + message);
+			exception.printStackTrace(System.out);
+		}
+	}
+
+	@Override
+	public void error(String tag, String message) {
+		if (m_logLevel >= LOG_ERROR) {
+			System.err.println(tag + ": " + message);
+		}
+	}
+
+	@Override
+	public void error(String tag, String message, Throwable exception) {
+		if (m_logLevel >= LOG_ERROR) {
+			System.err.println(tag + ": " + message);
+			exception.printStackTrace(System.err);
+		}
+	}
+
+	@Override
+	public void debug(String tag, String message) {
+		if (m_logLevel >= LOG_DEBUG) {
+			System.out.println(tag + ": " + message);
+		}
+	}
+
+	@Override
+	public void debug(String tag, String message, Throwable exception) {
+		if (m_logLevel >= LOG_DEBUG) {
+			System.out.println(tag + ": " + message);
+			exception.printStackTrace(System.out);
+		}
+	}
+
+	@Override
+	public void setLogLevel(int logLevel) {
+		m_logLevel = logLevel;
+	}
+
+	@Override
+	public ApplicationType getType() {
+		return ApplicationType.Desktop;
+	}
+
+	@Override
+	public int getVersion() {
+		return 0;
+	}
+
+	@Override
+	public long getJavaHeap() {
+		return Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+	}
+
+	@Override
+	public long getNativeHeap() {
+		return getJavaHeap();
+	}
+
+	@Override
+	public Preferences getPreferences(String name) {
+		return NoOp.create(Preferences.class);
+	}
+
+	@Override
+	public void postRunnable(Runnable runnable) {
+		synchronized (m_runnables) {
+			m_runnables.add(runnable);
+		}
+	}
+
+	@Override
+	public void exit() {
+		m_running = false;
+	}
+
+	private void executeRunnables() {
+		synchronized (m_runnables) {
+			m_executed.addAll(m_runnables);
+			m_runnables.clear();
+		}
+		
+		for (int i = 0; i < m_executed.size; ++i) {
+			m_executed.get(i).run();
+		}
+		
+		m_executed.clear();
+	}
+}
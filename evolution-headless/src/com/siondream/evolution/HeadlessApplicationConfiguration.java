@@ -0,0 +1,17 @@
+package com.siondream.evolution;
+
+import com.badlogic.gdx.Application;
+
+public class HeadlessApplicationConfiguration {
+	// Size reported to the game, nothing is ever displayed
+	public int width = 1280;
+	public int height = 720;
+	
+	// Frames to run before quitting, 0 runs until Gdx.app.exit()
+	public int frames = 0;
+	
+	// Delta reported every frame so runs are repeatable, 0 uses the wall clock
+	public float deltaTime = 1.0f / 60.0f;
+	
+	public int logLevel = Application.LOG_INFO;
+}
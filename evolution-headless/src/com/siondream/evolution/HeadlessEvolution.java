@@ -0,0 +1,36 @@
+package com.siondream.evolution;
+
+import com.siondream.engine.AllocationTracker;
+
+// Skips the menu, which waits for a tap that never comes without input
+public class HeadlessEvolution extends Evolution {
+	
+	private long m_allocationBudget;
+	
+	// A negative budget leaves allocation tracking to the settings
+	public HeadlessEvolution(long allocationBudget) {
+		m_allocationBudget = allocationBudget;
+	}
+	
+	@Override
+	public void create() {
+		super.create();
+		
+		if (m_allocationBudget >= 0) {
+			AllocationTracker allocations = getAllocationTracker();
+			allocations.setBudget(m_allocationBudget);
+			allocations.setFailOnBudget(true);
+			allocations.setEnabled(true);
+		}
+		
+		m_stateManager.changeState("StateGame");
+	}
+	
+	@Override
+	public void render() {
+		// Loading blocks so frame counts only measure gameplay
+		m_assetManager.finishLoading();
+		
+		super.render();
+	}
+}
@@ -0,0 +1,47 @@
+package com.siondream.evolution;
+
+import java.io.File;
+
+import com.badlogic.gdx.Files.FileType;
+import com.badlogic.gdx.files.FileHandle;
+
+// Internal files come from the working directory, or the classpath when missing there
+public class HeadlessFileHandle extends FileHandle {
+
+	public HeadlessFileHandle(String fileName, FileType type) {
+		super(fileName, type);
+	}
+
+	public HeadlessFileHandle(File file, FileType type) {
+		super(file, type);
+	}
+
+	@Override
+	public FileHandle child(String name) {
+		if (file.getPath().length() == 0) {
+			return new HeadlessFileHandle(new File(name), type);
+		}
+		
+		return new HeadlessFileHandle(new File(file, name), type);
+	}
+
+	@Override
+	public FileHandle parent() {
+		File parent = file.getParentFile();
+		
+		if (parent == null) {
+			parent = new File(type == FileType.Absolute? "/" : "");
+		}
+		
+		return new HeadlessFileHandle(parent, type);
+	}
+
+	@Override
+	public File file() {
+		if (type == FileType.External) {
+			return new File(HeadlessFiles.externalPath, file.getPath());
+		}
+		
+		return file;
+	}
+}
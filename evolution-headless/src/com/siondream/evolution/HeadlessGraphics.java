@@ -0,0 +1,196 @@
+package com.siondream.evolution;
+
+import com.badlogic.gdx.Graphics;
+import com.badlogic.gdx.graphics.GL10;
+import com.badlogic.gdx.graphics.GL11;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.GLCommon;
+import com.badlogic.gdx.graphics.GLU;
+import com.badlogic.gdx.graphics.Pixmap;
+
+// A GL10 context where every call is a no-op, batches and caches still fill their buffers
+public class HeadlessGraphics implements Graphics {
+
+	private GL10 m_gl10 = new HeadlessGL10();
+	private GLU m_glu = NoOp.create(GLU.class);
+	private int m_width;
+	private int m_height;
+	private float m_deltaTime = 0.0f;
+	private int m_fps = 0;
+	private int m_frames = 0;
+	private long m_frameStart = System.nanoTime();
+
+	public HeadlessGraphics(int width, int height) {
+		m_width = width;
+		m_height = height;
+	}
+
+	void update(float deltaTime) {
+		m_deltaTime = deltaTime;
+		++m_frames;
+		
+		// Frames per wall clock second, the simulated time may run much faster
+		long time = System.nanoTime();
+		
+		if (time - m_frameStart >= 1000000000L) {
+			m_fps = m_frames;
+			m_frames = 0;
+			m_frameStart = time;
+		}
+	}
+
+	@Override
+	public boolean isGL11Available() {
+		return false;
+	}
+
+	@Override
+	public boolean isGL20Available() {
+		return false;
+	}
+
+	@Override
+	public GLCommon getGLCommon() {
+		return m_gl10;
+	}
+
+	@Override
+	public GL10 getGL10() {
+		return m_gl10;
+	}
+
+	@Override
+	public GL11 getGL11() {
+		return null;
+	}
+
+	@Override
+	public GL20 getGL20() {
+		return null;
+	}
+
+	@Override
+	public GLU getGLU() {
+		return m_glu;
+	}
+
+	@Override
+	public int getWidth() {
+		return m_width;
+	}
+
+	@Override
+	public int getHeight() {
+		return m_height;
+	}
+
+	@Override
+	public float getDeltaTime() {
+		return m_deltaTime;
+	}
+
+	@Override
+	public float getRawDeltaTime() {
+		return m_deltaTime;
+	}
+
+	@Override
+	public int getFramesPerSecond() {
+		return m_fps;
+	}
+
+	@Override
+	public GraphicsType getType() {
+		return GraphicsType.LWJGL;
+	}
+
+	@Override
+	public float getPpiX() {
+		return 96.0f;
+	}
+
+	@Override
+	public float getPpiY() {
+		return 96.0f;
+	}
+
+	@Override
+	public float getPpcX() {
+		return 96.0f / 2.54f;
+	}
+
+	@Override
+	public float getPpcY() {
+		return 96.0f / 2.54f;
+	}
+
+	@Override
+	public float getDensity() {
+		return 1.0f;
+	}
+
+	@Override
+	public boolean supportsDisplayModeChange() {
+		return false;
+	}
+
+	@Override
+	public DisplayMode[] getDisplayModes() {
+		return new DisplayMode[0];
+	}
+
+	@Override
+	public DisplayMode getDesktopDisplayMode() {
+		return null;
+	}
+
+	@Override
+	public boolean setDisplayMode(DisplayMode displayMode) {
+		return false;
+	}
+
+	@Override
+	public boolean setDisplayMode(int width, int height, boolean fullscreen) {
+		return false;
+	}
+
+	@Override
+	public void setTitle(String title) {
+	}
+
+	@Override
+	public void setIcon(Pixmap[] pixmaps) {
+	}
+
+	@Override
+	public void setVSync(boolean vsync) {
+	}
+
+	@Override
+	public BufferFormat getBufferFormat() {
+		return new BufferFormat(8, 8, 8, 8, 0, 0, 0, false);
+	}
+
+	@Override
+	public boolean supportsExtension(String extension) {
+		return false;
+	}
+
+	@Override
+	public void setContinuousRendering(boolean isContinuous) {
+	}
+
+	@Override
+	public boolean isContinuousRendering() {
+		return true;
+	}
+
+	@Override
+	public void requestRendering() {
+	}
+
+	@Override
+	public boolean isFullscreen() {
+		return false;
+	}
+}
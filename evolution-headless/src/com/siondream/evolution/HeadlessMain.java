@@ -0,0 +1,21 @@
+package com.siondream.evolution;
+
+// Usage: HeadlessMain [frames] [allocation budget in bytes per frame]
+// Run from a directory with the game's data folder or with the assets on the classpath
+// With a budget the run fails as soon as a frame past the warm up allocates more than it
+// 2048 is a realistic gate, gameplay allocates nothing but HotSpot still does up to ~1 KB in the odd frame
+// The gate covers the serial path only, no simulation thread or task runner is installed here
+public class HeadlessMain {
+	public static void main(String[] args) {
+		HeadlessApplicationConfiguration cfg = new HeadlessApplicationConfiguration();
+		cfg.width = 1280;
+		cfg.height = 720;
+		cfg.frames = args.length > 0? Integer.parseInt(args[0]) : 3600;
+		
+		HeadlessEvolution evolution = new HeadlessEvolution(args.length > 1? Long.parseLong(args[1]) : -1);
+		Evolution.setPlatformResolver(new HeadlessResolver());
+		Evolution.setAllocationCounter(ThreadAllocationCounter.create());
+		
+		new HeadlessApplication(evolution, cfg).run();
+	}
+}
@@ -0,0 +1,11 @@
+package com.siondream.evolution;
+
+import com.siondream.engine.PlatformResolver;
+
+public class HeadlessResolver implements PlatformResolver {
+
+	@Override
+	public String getDefaultLanguage() {
+		return java.util.Locale.getDefault().toString();
+	}
+}
@@ -0,0 +1,130 @@
+package com.siondream.evolution;
+
+import java.util.HashMap;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.Array;
+import com.siondream.engine.Component;
+import com.siondream.engine.Entity;
+
+// Usage: ListenerBenchmark [messages per round] [rounds]
+// Entity.onMessage fan out through the id indexed listener table against the HashMap lookup it replaced
+public class ListenerBenchmark extends Evolution {
+
+	private static final int m_listenersPerType = 3;
+
+	private int m_messages;
+	private int m_rounds;
+	private Entity m_entity;
+	private int[] m_types;
+	private HashMap<Integer, Array<Component>> m_map = new HashMap<Integer, Array<Component>>();
+	private long m_received = 0;
+
+	private class Listener extends Component {
+		public Listener() {
+			super("BenchmarkListener", 0);
+		}
+
+		@Override
+		public void update(float deltaT) {}
+
+		@Override
+		public void reset() {}
+
+		@Override
+		public void dispose() {}
+
+		@Override
+		public void onMessage(Component sender, int type, Object data) {
+			m_received += type;
+		}
+	}
+
+	public ListenerBenchmark(int messages, int rounds) {
+		m_messages = messages;
+		m_rounds = rounds;
+	}
+
+	@Override
+	public void create() {
+		super.create();
+
+		// Entity reads the settings while initialising, only safe once the game exists
+		m_types = new int[] { Entity.EntityMoved,
+							  Entity.EntityScaled,
+							  Entity.EntityRotated,
+							  Entity.EntityStateChanged };
+
+		m_entity = getEntityManager().obtain();
+
+		for (int i = 0; i < m_types.length; ++i) {
+			Array<Component> components = new Array<Component>();
+
+			for (int j = 0; j < m_listenersPerType; ++j) {
+				Listener listener = new Listener();
+				m_entity.addListener(m_types[i], listener);
+				components.add(listener);
+			}
+
+			m_map.put(m_types[i], components);
+		}
+
+		m_entity.batch(false);
+
+		// First round lets the JIT compile both paths
+		for (int round = 0; round <= m_rounds; ++round) {
+			long mapNanos = runMap();
+			long tableNanos = runTable();
+
+			if (round > 0) {
+				Gdx.app.log("ListenerBenchmark", "round " + round +
+							": HashMap " + (float)mapNanos / m_messages + "ns" +
+							", table " + (float)tableNanos / m_messages + "ns" +
+							" per message (" + m_listenersPerType + " listeners)");
+			}
+		}
+
+		Gdx.app.log("ListenerBenchmark", "checksum " + m_received);
+		Gdx.app.exit();
+	}
+
+	// Same lookup Entity.onMessage used to do
+	private long runMap() {
+		long start = System.nanoTime();
+
+		for (int i = 0; i < m_messages; ++i) {
+			int type = m_types[i & 3];
+			Array<Component> components = m_map.get(type);
+
+			if (components != null) {
+				for (int j = 0; j < components.size; ++j) {
+					components.get(j).onMessage(null, type, null);
+				}
+			}
+		}
+
+		return System.nanoTime() - start;
+	}
+
+	private long runTable() {
+		long start = System.nanoTime();
+
+		for (int i = 0; i < m_messages; ++i) {
+			m_entity.onMessage(null, m_types[i & 3], null);
+		}
+
+		return System.nanoTime() - start;
+	}
+
+	public static void main(String[] args) {
+		HeadlessApplicationConfiguration cfg = new HeadlessApplicationConfiguration();
+		cfg.frames = 1;
+
+		int messages = args.length > 0? Integer.parseInt(args[0]) : 10000000;
+		int rounds = args.length > 1? Integer.parseInt(args[1]) : 5;
+
+		Evolution.setPlatformResolver(new HeadlessResolver());
+
+		new HeadlessApplication(new ListenerBenchmark(messages, rounds), cfg).run();
+	}
+}
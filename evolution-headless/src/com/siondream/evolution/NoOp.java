@@ -0,0 +1,73 @@
+package com.siondream.evolution;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+
+// Stand-ins for the GL, audio and input interfaces, every call does nothing and returns a default
+public class NoOp implements InvocationHandler {
+
+	private static final NoOp m_handler = new NoOp();
+	private static final HashMap<Class<?>, Object> m_instances = new HashMap<Class<?>, Object>();
+
+	@SuppressWarnings("unchecked")
+	public static synchronized <T> T create(Class<T> type) {
+		Object instance = m_instances.get(type);
+		
+		if (instance == null) {
+			instance = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, m_handler);
+			m_instances.put(type, instance);
+		}
+		
+		return (T)instance;
+	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) {
+		String name = method.getName();
+		Class<?> type = method.getReturnType();
+		
+		if (method.getDeclaringClass() == Object.class) {
+			if (name.equals("equals")) {
+				return proxy == args[0];
+			}
+			else if (name.equals("hashCode")) {
+				return System.identityHashCode(proxy);
+			}
+			
+			return "NoOp " + proxy.getClass().getInterfaces()[0].getSimpleName();
+		}
+		
+		if (type == boolean.class) {
+			return false;
+		}
+		else if (type == int.class) {
+			return 0;
+		}
+		else if (type == long.class) {
+			return 0L;
+		}
+		else if (type == float.class) {
+			return 0.0f;
+		}
+		else if (type == double.class) {
+			return 0.0;
+		}
+		else if (type == short.class) {
+			return (short)0;
+		}
+		else if (type == byte.class) {
+			return (byte)0;
+		}
+		else if (type == char.class) {
+			return (char)0;
+		}
+		else if (type.isInterface()) {
+			// Sounds, music and the like are no-ops as well
+			return create(type);
+		}
+		
+		return null;
+	}
+}
@@ -0,0 +1,32 @@
+package com.siondream.evolution;
+
+import java.lang.management.ManagementFactory;
+
+import com.siondream.engine.AllocationCounter;
+
+// HotSpot keeps a per thread allocation count, reading it does not allocate
+// Lives in evolution-jvm so the desktop and headless launchers share it without depending on each other
+public class ThreadAllocationCounter implements AllocationCounter {
+
+	private com.sun.management.ThreadMXBean m_threads;
+
+	private ThreadAllocationCounter() {
+		m_threads = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+		m_threads.setThreadAllocatedMemoryEnabled(true);
+	}
+
+	// Null when the running VM cannot count allocations
+	public static ThreadAllocationCounter create() {
+		if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+			return null;
+		}
+		
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+		return threads.isThreadAllocatedMemorySupported()? new ThreadAllocationCounter() : null;
+	}
+
+	@Override
+	public long getAllocatedBytes() {
+		return m_threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+}
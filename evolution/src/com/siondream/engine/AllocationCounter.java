@@ -0,0 +1,6 @@
+package com.siondream.engine;
+
+public interface AllocationCounter {
+	// Bytes allocated so far by the calling thread, platforms that cannot tell are not given a counter
+	public long getAllocatedBytes();
+}
@@ -0,0 +1,131 @@
+package com.siondream.engine;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.Logger;
+
+// Bytes allocated per frame on the render thread, checked against a budget once warmed up
+// Other threads are not counted, Game refuses to fail on budget when the simulation or systems run on them
+public class AllocationTracker {
+
+	private static Logger m_logger = Game.getLogger();
+
+	private AllocationCounter m_counter;
+	private boolean m_enabled;
+	private long m_budget;
+	private boolean m_failOnBudget;
+	private int m_warmupFrames;
+	private int m_frames = 0;
+	private long m_start = 0;
+	private long m_last = 0;
+	private long m_max = 0;
+	private long m_total = 0;
+	private int m_overBudget = 0;
+
+	// Game code allocates nothing once warmed up, the default covers what HotSpot allocates now and then while it compiles
+	public AllocationTracker(AllocationCounter counter) {
+		this(counter,
+			 Game.getSettings().getBoolean("allocationTracking", false),
+			 Game.getSettings().getInt("allocationBudget", 2048),
+			 Game.getSettings().getInt("allocationWarmupFrames", 300),
+			 Game.getSettings().getBoolean("allocationFailOnBudget", false));
+	}
+
+	public AllocationTracker(AllocationCounter counter, boolean enabled, long budget, int warmupFrames, boolean failOnBudget) {
+		m_counter = counter;
+		m_budget = budget;
+		m_warmupFrames = warmupFrames;
+		m_failOnBudget = failOnBudget;
+		setEnabled(enabled);
+	}
+
+	public boolean isEnabled() {
+		return m_enabled;
+	}
+
+	// Stays off on platforms without a counter
+	public void setEnabled(boolean enabled) {
+		m_enabled = enabled && m_counter != null;
+		
+		if (enabled && m_counter == null) {
+			m_logger.info("AllocationTracker: no allocation counter on this platform");
+		}
+	}
+
+	public long getBudget() {
+		return m_budget;
+	}
+
+	public void setBudget(long budget) {
+		m_budget = budget;
+	}
+
+	// Throws instead of logging when a frame goes over budget, meant for automated runs
+	public void setFailOnBudget(boolean failOnBudget) {
+		m_failOnBudget = failOnBudget;
+	}
+
+	public void setWarmupFrames(int warmupFrames) {
+		m_warmupFrames = warmupFrames;
+	}
+
+	public long getLastFrameBytes() {
+		return m_last;
+	}
+
+	// Statistics only cover frames after the warm up
+	public long getMaxFrameBytes() {
+		return m_max;
+	}
+
+	public long getAverageFrameBytes() {
+		int frames = m_frames - m_warmupFrames;
+		return frames > 0? m_total / frames : 0;
+	}
+
+	public int getFramesOverBudget() {
+		return m_overBudget;
+	}
+
+	public void beginFrame() {
+		if (m_enabled) {
+			m_start = m_counter.getAllocatedBytes();
+		}
+	}
+
+	public void endFrame() {
+		if (!m_enabled) {
+			return;
+		}
+		
+		m_last = m_counter.getAllocatedBytes() - m_start;
+		
+		// Loading and pool warm up are expected to allocate
+		if (++m_frames <= m_warmupFrames) {
+			return;
+		}
+		
+		m_total += m_last;
+		
+		if (m_last > m_budget) {
+			++m_overBudget;
+			
+			if (m_failOnBudget) {
+				throw new GdxRuntimeException("AllocationTracker: frame " + m_frames + " allocated " + m_last + " bytes, budget is " + m_budget);
+			}
+		}
+		
+		// Only new peaks are logged, a steady offender would flood the log otherwise
+		if (m_last > m_max) {
+			m_max = m_last;
+			
+			if (m_last > m_budget) {
+				m_logger.info("AllocationTracker: frame " + m_frames + " allocated " + m_last + " bytes, budget is " + m_budget);
+			}
+		}
+	}
+
+	public void log() {
+		m_logger.info("AllocationTracker: " + (m_frames - m_warmupFrames) + " frames, average " + getAverageFrameBytes() +
+					  " bytes, max " + m_max + " bytes, " + m_overBudget + " over budget");
+	}
+}
@@ -11,7 +11,6 @@ import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.math.collision.BoundingBox;
-import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Logger;
 
 public class AnimationComponent extends Component {
@@ -39,35 +38,50 @@ public class AnimationComponent extends Component {
 	private Vector2 m_origin = Vector2.Zero.cpy();
 	private boolean m_dirty = true;
 	
-	// Cached trasform (to avoid vertex recalculations)
-	private Vector3 m_position = new Vector3(Vector3.Zero);
-	private float m_scale = 0.0f;
-	private float m_rotation = 0.0f;
+	// Transform version the vertices were computed for (to avoid vertex recalculations)
+	private int m_transformVersion = -1;
 	
 	// Current state
-	private Integer m_animationID = 0;
+	private int m_animationID = 0;
 	private Animation m_animation = null;
 	private float m_time = 0.0f;
 	private boolean m_playing = true;
 	private boolean m_flipX = false;
 	private boolean m_flipY = true;
 	
+	// Set by animate(), the finished event is sent from the main thread
+	private boolean m_animated = false;
+	private boolean m_finished = false;
+	private boolean m_ended = false;
+	
 	// Frustum culling
 	protected Frustum m_frustum = Game.getFrustum();
 	protected BoundingBox m_bbox = new BoundingBox();
 	protected Vector3 m_max = new Vector3(0.0f, 0.0f, 0.0f);
 	protected Vector3 m_min = new Vector3(0.0f, 0.0f, 0.0f);
 	
-	public AnimationComponent(Entity entity, String file) {
-		super(entity, "AnimationComponent", 5);
+	public AnimationComponent() {
+		super("AnimationComponent", 5);
 		
-		m_file = file;
-		m_scale = Game.mpp;
 		setColor(m_color);
+	}
+	
+	public AnimationComponent(Entity entity, String file) {
+		this();
 		
+		setFile(file);
+		attach(entity);
+	}
+	
+	@Override
+	protected void onAttach() {
 		m_assetManager.load(m_file, AnimationData.class);
 	}
 	
+	public void setFile(String file) {
+		m_file = file;
+	}
+	
 	public String getName() {
 		return m_name;
 	}
@@ -94,25 +108,68 @@ public class AnimationComponent extends Component {
 		m_animation = null;
 		m_data = null;
 		m_file = null;
+		m_frame = null;
+		m_time = 0.0f;
+		m_playing = true;
+		m_dirty = true;
+		m_animated = false;
+		m_finished = false;
+		m_ended = false;
+		m_transformVersion = -1;
 		reset();
 	}
 
 	@Override
 	public void update(float deltaT) {
-		
-		if (m_type == IDGenerator.getID("item")) {
-			m_logger.error("Anim: Updating rock!");
+		if (m_data != null) {
+			// Animate here unless the AnimationSystem already did it this frame
+			if (!m_animated) {
+				animate(deltaT);
+			}
+			
+			m_animated = false;
+			
+			if (m_finished) {
+				m_finished = false;
+				m_entity.onMessage(this, AnimationFinished, m_animationID, 0.0f);
+			}
 		}
-		
+		else {
+			m_logger.error("AnimationComponent: trying to draw null data " + m_file);
+		}
+	}
+	
+	@Override
+	public void render() {
+		if (m_data != null) {
+			draw();
+		}
+	}
+	
+	@Override
+	public void capture(RenderSnapshot snapshot) {
+		if (m_data != null) {
+			// Same interpolated transform draw uses
+			if (m_entity.isInterpolated()) {
+				computeVertices(m_entity.getRenderX(),
+								m_entity.getRenderY(),
+								m_entity.getRenderScale() * Game.mpp,
+								m_entity.getRenderRotation());
+				m_dirty = true;
+			}
+			
+			snapshot.addSprite(m_data.getTexture(), m_vertices, m_entity.getZ());
+		}
+	}
+	
+	// Only touches this component, safe to call from a worker thread
+	public void animate(float deltaT) {
 		if (m_data != null) {
 			updateState();
 			updateAnimation(deltaT);
 			applyTransform();
 			computeVertices();
-			draw();
-		}
-		else {
-			m_logger.error("AnimationComponent: trying to draw null data " + m_file);
+			m_animated = true;
 		}
 	}
 	
@@ -143,11 +200,6 @@ public class AnimationComponent extends Component {
 		// Doesn´t listen to any messages for now
 	}
 
-	@Override
-	public Array<Integer> getDependencies() {
-		return new Array<Integer>();
-	}
-	
 	private void updateState() {
 		// Fetch entity state
 		int state = m_entity.getState();
@@ -162,6 +214,7 @@ public class AnimationComponent extends Component {
 			
 			// Restart timer
 			m_time = 0.0f;
+			m_ended = false;
 		}
 	}
 	
@@ -173,35 +226,50 @@ public class AnimationComponent extends Component {
 			// Update the current frame
 			setRegion(m_animation.getKeyFrame(m_time));
 
-			if (m_animation.isAnimationFinished(m_time)) {
-				// Send event
-				m_entity.onMessage(this, AnimationFinished, Integer.valueOf(m_animationID));
+			// Report the end once, not on every frame the animation stays finished
+			boolean ended = m_animation.isAnimationFinished(m_time);
+			
+			if (ended && !m_ended) {
+				m_finished = true;
 			}
+			
+			m_ended = ended;
 		}
 	}
 	
 	private void applyTransform() {
-		// Trasform (position, scale, rotation)
-		Vector3 position = m_entity.getPosition();
-		float rotation = m_entity.getRotation();
-		float scale = m_entity.getScale();
+		// Trasform (position, scale, rotation), only fetched when the entity has changed it
+		int version = m_entity.getTransformVersion();
 		
-		if (!m_position.equals(position) || m_rotation != rotation || m_scale != scale) {
-			m_position.set(position);
-			m_scale = scale * Game.mpp;
-			m_rotation = rotation;
+		if (version != m_transformVersion) {
+			m_transformVersion = version;
 			m_dirty = true;
 		}
 	}
 	
 	private void draw() {
+		float x = m_entity.getX();
+		float y = m_entity.getY();
+		float z = m_entity.getZ();
+		
+		// Between fixed steps the sprite is drawn part way from its previous transform
+		if (m_entity.isInterpolated()) {
+			x = m_entity.getRenderX();
+			y = m_entity.getRenderY();
+			computeVertices(x, y, m_entity.getRenderScale() * Game.mpp, m_entity.getRenderRotation());
+			
+			// Next update has to put the vertices back on the simulated transform
+			m_dirty = true;
+		}
+		
 		// Frustum culling
-		m_min.x = m_position.x - m_origin.x;
-		m_min.y = m_position.y + m_origin.y;
-		m_min.z = m_position.z;
-		m_max.x = m_position.x + m_size.x - m_origin.x;
-		m_max.y = m_position.y - m_size.y + m_origin.y;
-		m_max.z = m_position.z;
+		
+		m_min.x = x - m_origin.x;
+		m_min.y = y + m_origin.y;
+		m_min.z = z;
+		m_max.x = x + m_size.x - m_origin.x;
+		m_max.y = y - m_size.y + m_origin.y;
+		m_max.z = z;
 		
 		m_bbox.set(m_min, m_max);
 		
@@ -243,70 +311,78 @@ public class AnimationComponent extends Component {
 		if (m_dirty) {
 			m_dirty = false;
 			
-			// Apply translation
-			float localX = -m_origin.x;
-			float localY = -m_origin.y;
-			float localX2 = localX + m_size.x;
-			float localY2 = localY + m_size.y;
-			
-			// Apply scale
-			if (m_scale != 1) {
-				localX *= m_scale;
-				localY *= m_scale;
-				localX2 *= m_scale;
-				localY2 *= m_scale;
-			}
-			
-			// Apply rotation
-			if (m_rotation != 0) {
-				final float cos = MathUtils.cosDeg(m_rotation);
-				final float sin = MathUtils.sinDeg(m_rotation);
-				final float localXCos = localX * cos;
-				final float localXSin = localX * sin;
-				final float localYCos = localY * cos;
-				final float localYSin = localY * sin;
-				final float localX2Cos = localX2 * cos;
-				final float localX2Sin = localX2 * sin;
-				final float localY2Cos = localY2 * cos;
-				final float localY2Sin = localY2 * sin;
+			// Read straight from the entity transform store
+			computeVertices(m_entity.getX(),
+							m_entity.getY(),
+							m_entity.getScale() * Game.mpp,
+							m_entity.getRotation());
+		}
+	}
+	
+	private void computeVertices(final float posX, final float posY, final float scale, final float rotation) {
+		// Apply translation
+		float localX = -m_origin.x;
+		float localY = -m_origin.y;
+		float localX2 = localX + m_size.x;
+		float localY2 = localY + m_size.y;
+		
+		// Apply scale
+		if (scale != 1) {
+			localX *= scale;
+			localY *= scale;
+			localX2 *= scale;
+			localY2 *= scale;
+		}
+		
+		// Apply rotation
+		if (rotation != 0) {
+			final float cos = MathUtils.cosDeg(rotation);
+			final float sin = MathUtils.sinDeg(rotation);
+			final float localXCos = localX * cos;
+			final float localXSin = localX * sin;
+			final float localYCos = localY * cos;
+			final float localYSin = localY * sin;
+			final float localX2Cos = localX2 * cos;
+			final float localX2Sin = localX2 * sin;
+			final float localY2Cos = localY2 * cos;
+			final float localY2Sin = localY2 * sin;
 
-				final float x1 = localXCos - localYSin + m_position.x;
-				final float y1 = localYCos + localXSin + m_position.y;
-				m_vertices[X1] = x1;
-				m_vertices[Y1] = y1;
+			final float x1 = localXCos - localYSin + posX;
+			final float y1 = localYCos + localXSin + posY;
+			m_vertices[X1] = x1;
+			m_vertices[Y1] = y1;
 
-				final float x2 = localXCos - localY2Sin + m_position.x;
-				final float y2 = localY2Cos + localXSin + m_position.y;
-				m_vertices[X2] = x2;
-				m_vertices[Y2] = y2;
+			final float x2 = localXCos - localY2Sin + posX;
+			final float y2 = localY2Cos + localXSin + posY;
+			m_vertices[X2] = x2;
+			m_vertices[Y2] = y2;
 
-				final float x3 = localX2Cos - localY2Sin + m_position.x;
-				final float y3 = localY2Cos + localX2Sin + m_position.y;
-				m_vertices[X3] = x3;
-				m_vertices[Y3] = y3;
+			final float x3 = localX2Cos - localY2Sin + posX;
+			final float y3 = localY2Cos + localX2Sin + posY;
+			m_vertices[X3] = x3;
+			m_vertices[Y3] = y3;
 
-				m_vertices[X4] = x1 + (x3 - x2);
-				m_vertices[Y4] = y3 - (y2 - y1);
-			}
+			m_vertices[X4] = x1 + (x3 - x2);
+			m_vertices[Y4] = y3 - (y2 - y1);
+		}
 
-			else {
-				final float x1 = localX + m_position.x;
-				final float y1 = localY + m_position.y;
-				final float x2 = localX2 + m_position.x;
-				final float y2 = localY2 + m_position.y;
+		else {
+			final float x1 = localX + posX;
+			final float y1 = localY + posY;
+			final float x2 = localX2 + posX;
+			final float y2 = localY2 + posY;
 
-				m_vertices[X1] = x1;
-				m_vertices[Y1] = y1;
+			m_vertices[X1] = x1;
+			m_vertices[Y1] = y1;
 
-				m_vertices[X2] = x1;
-				m_vertices[Y2] = y2;
+			m_vertices[X2] = x1;
+			m_vertices[Y2] = y2;
 
-				m_vertices[X3] = x2;
-				m_vertices[Y3] = y2;
+			m_vertices[X3] = x2;
+			m_vertices[Y3] = y2;
 
-				m_vertices[X4] = x2;
-				m_vertices[Y4] = y1;
-			}
+			m_vertices[X4] = x2;
+			m_vertices[Y4] = y1;
 		}
 	}
 	
@@ -323,14 +399,11 @@ public class AnimationComponent extends Component {
 		return m_flipY;
 	}
 	
+	// Flips the vertices only, regions are shared between entities that may animate in parallel
 	private void setFlip() {
-		m_frame.flip(m_flipX, m_flipY);
-		
 		if (m_flipX) {
 			float u = m_vertices[U1];
 			float u2 = m_vertices[U3];
-			m_frame.setU(u);
-			m_frame.setU2(u2);
 			m_vertices[U1] = u2;
 			m_vertices[U2] = u2;
 			m_vertices[U3] = u;
@@ -339,8 +412,6 @@ public class AnimationComponent extends Component {
 		if (m_flipY) {
 			float v = m_vertices[V2];
 			float v2 = m_vertices[V1];
-			m_frame.setV(v);
-			m_frame.setV2(v2);
 			m_vertices[V1] = v;
 			m_vertices[V2] = v2;
 			m_vertices[V3] = v2;
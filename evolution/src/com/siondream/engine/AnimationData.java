@@ -25,7 +25,7 @@ public class AnimationData {
 	private float m_frameDuration = 0.0f;
 	private IntMap<Animation> m_animations = new IntMap<Animation>();
 	private Animation m_defaultAnimation = null;
-	private Integer m_defaultAnimationID = 0;
+	private int m_defaultAnimationID = 0;
 	
 	public AnimationData(String animationFile) {
 		m_name = animationFile;
@@ -121,7 +121,7 @@ public class AnimationData {
 				String name = animationNode.getAttribute("name");
 				String frames = animationNode.getAttribute("frames");
 				int playMode = getPlayMode(animationNode.get("mode", "normal"));
-				Integer id = IDGenerator.getID(name);
+				int id = IDGenerator.getID(name);
 				
 				Animation animation = new Animation(m_frameDuration, getAnimationFrames(frames), playMode);
 				m_animations.put(id, animation);
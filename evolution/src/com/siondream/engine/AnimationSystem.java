@@ -0,0 +1,19 @@
+package com.siondream.engine;
+
+// Selects frames and builds vertices for every animation, drawing happens later in AnimationComponent.render
+public class AnimationSystem extends EntitySystem {
+
+	private static final int m_animComponentID = IDGenerator.getID("AnimationComponent");
+
+	public AnimationSystem() {
+		super("AnimationSystem", true);
+
+		requires("AnimationComponent");
+		writes("AnimationComponent");
+	}
+
+	@Override
+	public void process(Entity entity, float deltaT) {
+		((AnimationComponent)entity.getComponent(m_animComponentID)).animate(deltaT);
+	}
+}
@@ -1,6 +1,5 @@
 package com.siondream.engine;
 
-import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Disposable;
 
 public abstract class Component implements Disposable,
@@ -9,7 +8,12 @@ public abstract class Component implements Disposable,
 	protected Entity m_entity;
 	protected String m_name;
 	protected int m_type;
+	protected int m_index;
 	protected int m_priority;
+	protected ComponentDescriptor m_descriptor;
+	
+	// Position inside its ComponentStore bucket, owned by the store
+	int m_storeIndex = -1;
 	
 	public Component(String name, int priority) {
 		this(null, name, priority);
@@ -19,7 +23,9 @@ public abstract class Component implements Disposable,
 		m_entity = entity;
 		m_name = name;
 		m_type = IDGenerator.getID(m_name);
+		m_index = ComponentTypes.getIndex(m_type);
 		m_priority = priority;
+		m_descriptor = ComponentDescriptor.get(m_type);
 	}
 
 	public String getName() {
@@ -30,14 +36,43 @@ public abstract class Component implements Disposable,
 		return m_type;
 	}
 	
+	public int getIndex() {
+		return m_index;
+	}
+	
+	public int getPriority() {
+		return m_priority;
+	}
+	
+	public ComponentDescriptor getDescriptor() {
+		return m_descriptor;
+	}
+	
+	public Entity getEntity() {
+		return m_entity;
+	}
+	
+	// Pooled components are created detached and attached every time they are reused
+	public void attach(Entity entity) {
+		m_entity = entity;
+		onAttach();
+	}
+	
+	// Register listeners and queue asset loads here instead of in the constructor
+	protected void onAttach() {}
+	
 	public abstract void update(float deltaT);
 	
+	// Render phase, called in z order inside SpriteBatch.begin/end after every update
+	public void render() {}
+	
+	// Simulation thread version of render, copies what would be drawn into the snapshot
+	public void capture(RenderSnapshot snapshot) {}
+	
 	public abstract void reset();
 	
 	public abstract void onMessage(Component sender, int type, Object data);
 	
-	public abstract Array<Integer> getDependencies();
-	
 	public void fetchAssets() {}
 	
 	@Override
@@ -0,0 +1,159 @@
+package com.siondream.engine;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.Logger;
+
+// Static information shared by every component of a class, declared once per class
+public class ComponentDescriptor {
+
+	private static Logger m_logger = Game.getLogger();
+	private static IntMap<ComponentDescriptor> m_descriptors = new IntMap<ComponentDescriptor>();
+	private static boolean m_dirty = false;
+
+	// Marks used while walking the graph
+	private static final int Unvisited = 0;
+	private static final int Visiting = 1;
+	private static final int Visited = 2;
+
+	private String m_name;
+	private int m_type;
+	private int[] m_dependencies;
+	private long m_required = 0L;
+	private int m_order = 0;
+	private boolean m_valid = true;
+	private int m_mark = Unvisited;
+
+	private ComponentDescriptor(String name, String[] dependencies) {
+		m_name = name;
+		m_type = IDGenerator.getID(name);
+		m_dependencies = new int[dependencies.length];
+
+		for (int i = 0; i < dependencies.length; ++i) {
+			m_dependencies[i] = IDGenerator.getID(dependencies[i]);
+			int index = ComponentTypes.getIndex(m_dependencies[i]);
+
+			if (index != -1) {
+				m_required |= 1L << index;
+			}
+		}
+	}
+
+	// Declares the components a class needs on its entity, usually from a static field
+	public static ComponentDescriptor declare(String name, String... dependencies) {
+		int type = IDGenerator.getID(name);
+		ComponentDescriptor descriptor = m_descriptors.get(type);
+
+		if (descriptor != null) {
+			m_logger.error("ComponentDescriptor: " + name + " declared twice");
+			return descriptor;
+		}
+
+		descriptor = new ComponentDescriptor(name, dependencies);
+		m_descriptors.put(type, descriptor);
+		m_dirty = true;
+
+		return descriptor;
+	}
+
+	// Classes that never declared anything get a descriptor without dependencies
+	public static ComponentDescriptor get(int type) {
+		ComponentDescriptor descriptor = m_descriptors.get(type);
+
+		if (descriptor == null) {
+			descriptor = declare(IDGenerator.getString(type));
+		}
+
+		return descriptor;
+	}
+
+	// Checks the graph for cycles and computes the initialization order
+	public static void validate() {
+		if (!m_dirty) {
+			return;
+		}
+
+		for (ComponentDescriptor descriptor : m_descriptors.values()) {
+			descriptor.m_mark = Unvisited;
+			descriptor.m_valid = true;
+		}
+
+		for (ComponentDescriptor descriptor : m_descriptors.values()) {
+			visit(descriptor);
+		}
+
+		m_dirty = false;
+	}
+
+	public String getName() {
+		return m_name;
+	}
+
+	public int getType() {
+		return m_type;
+	}
+
+	public int getNumDependencies() {
+		return m_dependencies.length;
+	}
+
+	public int getDependency(int index) {
+		return m_dependencies[index];
+	}
+
+	// Mask with every component type this one depends on
+	public long getRequired() {
+		return m_required;
+	}
+
+	// Components initialize after everything they depend on, lower orders first
+	public int getOrder() {
+		validate();
+		return m_order;
+	}
+
+	// False if the class takes part in a dependency cycle
+	public boolean isValid() {
+		validate();
+		return m_valid;
+	}
+
+	@Override
+	public String toString() {
+		return "ComponentDescriptor (" + m_name + ")";
+	}
+
+	private static int visit(ComponentDescriptor descriptor) {
+		if (descriptor.m_mark == Visited) {
+			return descriptor.m_order;
+		}
+
+		if (descriptor.m_mark == Visiting) {
+			m_logger.error("ComponentDescriptor: dependency cycle through " + descriptor.m_name);
+			descriptor.m_valid = false;
+			return 0;
+		}
+
+		descriptor.m_mark = Visiting;
+
+		int order = 0;
+
+		for (int i = 0; i < descriptor.m_dependencies.length; ++i) {
+			ComponentDescriptor dependency = m_descriptors.get(descriptor.m_dependencies[i]);
+
+			// Dependencies that were never declared have no dependencies themselves
+			int dependencyOrder = dependency != null? visit(dependency) : 0;
+
+			if (dependency != null && !dependency.m_valid) {
+				descriptor.m_valid = false;
+			}
+
+			order = Math.max(order, dependencyOrder + 1);
+		}
+
+		descriptor.m_order = order;
+		descriptor.m_mark = Visited;
+
+		return order;
+	}
+}
@@ -0,0 +1,7 @@
+package com.siondream.engine;
+
+import com.badlogic.gdx.utils.XmlReader.Element;
+
+public interface ComponentFactory {
+	public Component create(Entity entity, Element definition);
+}
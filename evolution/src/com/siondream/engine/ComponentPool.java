@@ -0,0 +1,95 @@
+package com.siondream.engine;
+
+import com.badlogic.gdx.utils.Pool;
+
+public abstract class ComponentPool<T extends Component> extends Pool<T> {
+
+	// Statistics to size pools per level
+	private int m_obtained = 0;
+	private int m_misses = 0;
+	private int m_freed = 0;
+	private int m_discarded = 0;
+	private int m_free = 0;
+	private int m_peak = 0;
+
+	public ComponentPool(int capacity) {
+		super(capacity, capacity);
+	}
+
+	protected abstract T create();
+
+	@Override
+	public T obtain() {
+		++m_obtained;
+
+		if (m_free > 0) {
+			--m_free;
+		}
+
+		return super.obtain();
+	}
+
+	@Override
+	public void free(T component) {
+		++m_freed;
+
+		if (m_free < max) {
+			++m_free;
+			m_peak = Math.max(m_peak, m_free);
+		}
+		else {
+			++m_discarded;
+		}
+
+		super.free(component);
+	}
+
+	@Override
+	public void clear() {
+		super.clear();
+		m_free = 0;
+	}
+
+	public int getObtained() {
+		return m_obtained;
+	}
+
+	public int getHits() {
+		return m_obtained - m_misses;
+	}
+
+	public int getMisses() {
+		return m_misses;
+	}
+
+	public int getFreed() {
+		return m_freed;
+	}
+
+	// Components dropped because the pool was already full
+	public int getDiscarded() {
+		return m_discarded;
+	}
+
+	public int getFree() {
+		return m_free;
+	}
+
+	public int getPeak() {
+		return m_peak;
+	}
+
+	public void resetStats() {
+		m_obtained = 0;
+		m_misses = 0;
+		m_freed = 0;
+		m_discarded = 0;
+		m_peak = m_free;
+	}
+
+	@Override
+	protected final T newObject() {
+		++m_misses;
+		return create();
+	}
+}
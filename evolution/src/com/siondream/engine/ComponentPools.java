@@ -0,0 +1,68 @@
+package com.siondream.engine;
+
+import java.util.HashMap;
+import java.util.Map.Entry;
+
+import com.badlogic.gdx.utils.Logger;
+
+public class ComponentPools {
+
+	private static Logger m_logger = Game.getLogger();
+	private static HashMap<Class<?>, ComponentPool<?>> m_pools = new HashMap<Class<?>, ComponentPool<?>>();
+
+	public static <T extends Component> void register(Class<T> type, ComponentPool<T> pool) {
+		m_pools.put(type, pool);
+	}
+
+	@SuppressWarnings("unchecked")
+	public static <T extends Component> ComponentPool<T> get(Class<T> type) {
+		return (ComponentPool<T>)m_pools.get(type);
+	}
+
+	// Returns a detached component, attach it to its entity before using it
+	public static <T extends Component> T obtain(Class<T> type) {
+		ComponentPool<T> pool = get(type);
+
+		if (pool == null) {
+			m_logger.error("ComponentPools: no pool registered for " + type.getName());
+			return null;
+		}
+
+		return pool.obtain();
+	}
+
+	// Gives a disposed component back to its pool, false if its class is not pooled
+	@SuppressWarnings("unchecked")
+	public static boolean free(Component component) {
+		ComponentPool<Component> pool = (ComponentPool<Component>)m_pools.get(component.getClass());
+
+		if (pool == null) {
+			return false;
+		}
+
+		component.m_entity = null;
+		pool.free(component);
+
+		return true;
+	}
+
+	public static void clear() {
+		for (ComponentPool<?> pool : m_pools.values()) {
+			pool.clear();
+		}
+	}
+
+	public static void logStats() {
+		for (Entry<Class<?>, ComponentPool<?>> entry : m_pools.entrySet()) {
+			ComponentPool<?> pool = entry.getValue();
+			m_logger.info("ComponentPools: " + entry.getKey().getName() +
+						  " obtained " + pool.getObtained() +
+						  " hits " + pool.getHits() +
+						  " misses " + pool.getMisses() +
+						  " freed " + pool.getFreed() +
+						  " discarded " + pool.getDiscarded() +
+						  " free " + pool.getFree() +
+						  " peak " + pool.getPeak());
+		}
+	}
+}
@@ -0,0 +1,107 @@
+package com.siondream.engine;
+
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.IntMap.Entry;
+import com.badlogic.gdx.utils.Logger;
+
+// Time spent in Component.update per component type and per entity type
+public class ComponentProfiler {
+
+	private static Logger m_logger = Game.getLogger();
+
+	private boolean m_enabled;
+	private int m_window;
+	private float m_logInterval;
+	private float m_logTime = 0.0f;
+	private IntMap<RollingTimings> m_byComponent = new IntMap<RollingTimings>();
+	private IntMap<RollingTimings> m_byEntity = new IntMap<RollingTimings>();
+
+	public ComponentProfiler() {
+		this(Game.getSettings().getBoolean("profileComponents", false),
+			 Game.getSettings().getInt("profileWindow", 120),
+			 Game.getSettings().getFloat("profileLogInterval", 5.0f));
+	}
+
+	// A log interval of 0 disables the periodic dump
+	public ComponentProfiler(boolean enabled, int window, float logInterval) {
+		m_enabled = enabled;
+		m_window = window;
+		m_logInterval = logInterval;
+	}
+
+	public boolean isEnabled() {
+		return m_enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		m_enabled = enabled;
+	}
+
+	// Null until a component of that type has been timed
+	public RollingTimings getComponentTimings(int componentType) {
+		return m_byComponent.get(componentType);
+	}
+
+	public RollingTimings getEntityTimings(int entityType) {
+		return m_byEntity.get(entityType);
+	}
+
+	public IntMap<RollingTimings> getComponentTimings() {
+		return m_byComponent;
+	}
+
+	public IntMap<RollingTimings> getEntityTimings() {
+		return m_byEntity;
+	}
+
+	void record(int componentType, int entityType, long nanos) {
+		get(m_byComponent, componentType).add(nanos);
+		get(m_byEntity, entityType).add(nanos);
+	}
+
+	void endFrame(float deltaT) {
+		for (RollingTimings timings : m_byComponent.values()) {
+			timings.endFrame();
+		}
+
+		for (RollingTimings timings : m_byEntity.values()) {
+			timings.endFrame();
+		}
+
+		if (m_logInterval > 0.0f) {
+			m_logTime += deltaT;
+
+			if (m_logTime >= m_logInterval) {
+				m_logTime = 0.0f;
+				log();
+			}
+		}
+	}
+
+	public void log() {
+		for (Entry<RollingTimings> entry : m_byComponent.entries()) {
+			m_logger.info("ComponentProfiler: component " + IDGenerator.getString(entry.key) + " " + entry.value);
+		}
+
+		for (Entry<RollingTimings> entry : m_byEntity.entries()) {
+			m_logger.info("ComponentProfiler: entity " + IDGenerator.getString(entry.key) + " " + entry.value);
+		}
+	}
+
+	public void clear() {
+		m_byComponent.clear();
+		m_byEntity.clear();
+		m_logTime = 0.0f;
+	}
+
+	private RollingTimings get(IntMap<RollingTimings> map, int key) {
+		RollingTimings timings = map.get(key);
+
+		if (timings == null) {
+			timings = new RollingTimings(m_window);
+			map.put(key, timings);
+		}
+
+		return timings;
+	}
+}
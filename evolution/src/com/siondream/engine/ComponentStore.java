@@ -0,0 +1,133 @@
+package com.siondream.engine;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.Logger;
+import com.badlogic.gdx.utils.TimeUtils;
+
+public class ComponentStore {
+
+	private static Logger m_logger = Game.getLogger();
+
+	// One packed bucket per component type, buckets ordered by priority
+	private IntMap<Array<Component>> m_buckets;
+	private Array<Array<Component>> m_ordered;
+	private IntArray m_priorities;
+	private int m_capacity;
+	private ComponentProfiler m_profiler;
+
+	public ComponentStore(int capacity) {
+		m_capacity = capacity;
+		m_buckets = new IntMap<Array<Component>>();
+		m_ordered = new Array<Array<Component>>();
+		m_priorities = new IntArray();
+		m_profiler = new ComponentProfiler();
+
+		m_logger.info("ComponentStore: creating component storage with bucket size " + capacity);
+	}
+
+	public ComponentProfiler getProfiler() {
+		return m_profiler;
+	}
+
+	public Array<Component> get(int type) {
+		return m_buckets.get(type);
+	}
+
+	public void add(Component component) {
+		Array<Component> bucket = m_buckets.get(component.getType());
+
+		if (bucket == null) {
+			bucket = new Array<Component>(true, m_capacity);
+			m_buckets.put(component.getType(), bucket);
+			insertOrdered(bucket, component.getPriority());
+		}
+
+		component.m_storeIndex = bucket.size;
+		bucket.add(component);
+	}
+
+	// Swap remove, order inside a bucket does not matter since rendering is a separate pass
+	public void remove(Component component) {
+		Array<Component> bucket = m_buckets.get(component.getType());
+		int index = component.m_storeIndex;
+
+		if (bucket == null || index < 0 || index >= bucket.size || bucket.get(index) != component) {
+			m_logger.error("ComponentStore: " + component + " not found in storage");
+			return;
+		}
+
+		Component last = bucket.pop();
+
+		if (last != component) {
+			bucket.set(index, last);
+			last.m_storeIndex = index;
+		}
+
+		component.m_storeIndex = -1;
+	}
+
+	// Simulation phase, components run by priority across every entity
+	public void update(float deltaT) {
+		// Checked once per frame so the untimed loop stays as it was
+		if (m_profiler.isEnabled()) {
+			updateProfiled(deltaT);
+			return;
+		}
+
+		for (int i = 0; i < m_ordered.size; ++i) {
+			Array<Component> bucket = m_ordered.get(i);
+
+			for (int j = 0; j < bucket.size; ++j) {
+				bucket.get(j).update(deltaT);
+			}
+		}
+	}
+
+	private void updateProfiled(float deltaT) {
+		for (int i = 0; i < m_ordered.size; ++i) {
+			Array<Component> bucket = m_ordered.get(i);
+
+			for (int j = 0; j < bucket.size; ++j) {
+				Component component = bucket.get(j);
+				int entityType = component.getEntity().getType();
+				long start = TimeUtils.nanoTime();
+				component.update(deltaT);
+				m_profiler.record(component.getType(), entityType, TimeUtils.nanoTime() - start);
+			}
+		}
+
+		m_profiler.endFrame(deltaT);
+	}
+
+	public void clear() {
+		for (int i = 0; i < m_ordered.size; ++i) {
+			Array<Component> bucket = m_ordered.get(i);
+			
+			for (int j = 0; j < bucket.size; ++j) {
+				bucket.get(j).m_storeIndex = -1;
+			}
+			
+			bucket.clear();
+		}
+
+		// Level is over, dump what was measured during it
+		if (m_profiler.isEnabled()) {
+			m_profiler.log();
+			m_profiler.clear();
+		}
+	}
+
+	private void insertOrdered(Array<Component> bucket, int priority) {
+		// Higher priority buckets go first, same as Component.compareTo
+		int index = 0;
+
+		while (index < m_priorities.size && m_priorities.get(index) >= priority) {
+			++index;
+		}
+
+		m_ordered.insert(index, bucket);
+		m_priorities.insert(index, priority);
+	}
+}
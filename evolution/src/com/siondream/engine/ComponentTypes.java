@@ -0,0 +1,57 @@
+package com.siondream.engine;
+
+import com.badlogic.gdx.utils.Logger;
+
+public class ComponentTypes {
+
+	// Component signatures are stored in a long, one bit per type
+	public static final int MaxTypes = 64;
+
+	private static Logger m_logger = Game.getLogger();
+
+	// Dense index (plus one) for every component type, indexed by IDGenerator id
+	private static int[] m_indices = new int[128];
+	private static int m_count = 0;
+
+	public static int getCount() {
+		return m_count;
+	}
+
+	// Returns the dense index for the type, registering it the first time
+	public static int getIndex(int type) {
+		int index = find(type);
+
+		if (index != -1) {
+			return index;
+		}
+
+		if (m_count >= MaxTypes) {
+			m_logger.error("ComponentTypes: too many component types, " + IDGenerator.getString(type) + " not registered");
+			return -1;
+		}
+
+		if (type >= m_indices.length) {
+			int[] indices = new int[Math.max(type + 1, m_indices.length * 2)];
+			System.arraycopy(m_indices, 0, indices, 0, m_indices.length);
+			m_indices = indices;
+		}
+
+		m_indices[type] = ++m_count;
+
+		return m_count - 1;
+	}
+
+	// Returns the dense index for the type or -1 if it has never been registered
+	public static int find(int type) {
+		if (type < 0 || type >= m_indices.length) {
+			return -1;
+		}
+
+		return m_indices[type] - 1;
+	}
+
+	public static long getBit(int type) {
+		int index = find(type);
+		return index != -1? 1L << index : 0L;
+	}
+}
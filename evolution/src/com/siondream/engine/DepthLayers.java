@@ -0,0 +1,106 @@
+package com.siondream.engine;
+
+import com.badlogic.gdx.utils.Array;
+
+// Active entities bucketed by z, layers go from far (high z) to near (low z)
+class DepthLayers {
+
+	static class Layer {
+		float depth;
+		Array<Entity> entities;
+
+		Layer(float depth, int capacity) {
+			this.depth = depth;
+			this.entities = new Array<Entity>(false, capacity);
+		}
+	}
+
+	private Array<Layer> m_layers = new Array<Layer>();
+	private int m_capacity;
+	private int m_size = 0;
+
+	DepthLayers(int capacity) {
+		m_capacity = capacity;
+	}
+
+	int size() {
+		return m_size;
+	}
+
+	int getLayerCount() {
+		return m_layers.size;
+	}
+
+	Array<Entity> getLayer(int index) {
+		return m_layers.get(index).entities;
+	}
+
+	void add(Entity entity) {
+		Layer layer = getOrCreate(entity.getZ());
+		entity.m_layer = layer;
+		entity.m_layerIndex = layer.entities.size;
+		layer.entities.add(entity);
+		++m_size;
+	}
+
+	// Swap remove, order inside a layer does not matter since all entities share z
+	void remove(Entity entity) {
+		Layer layer = entity.m_layer;
+
+		if (layer == null) {
+			return;
+		}
+
+		Array<Entity> entities = layer.entities;
+		Entity last = entities.pop();
+
+		if (last != entity) {
+			entities.set(entity.m_layerIndex, last);
+			last.m_layerIndex = entity.m_layerIndex;
+		}
+
+		entity.m_layer = null;
+		entity.m_layerIndex = -1;
+		--m_size;
+	}
+
+	void move(Entity entity) {
+		if (entity.m_layer != null && entity.m_layer.depth != entity.getZ()) {
+			remove(entity);
+			add(entity);
+		}
+	}
+
+	void clear() {
+		for (int i = 0; i < m_layers.size; ++i) {
+			Array<Entity> entities = m_layers.get(i).entities;
+
+			for (int j = 0; j < entities.size; ++j) {
+				entities.get(j).m_layer = null;
+				entities.get(j).m_layerIndex = -1;
+			}
+
+			entities.clear();
+		}
+
+		m_size = 0;
+	}
+
+	private Layer getOrCreate(float depth) {
+		// Levels only use a handful of depths, a linear search is enough
+		int index = 0;
+
+		while (index < m_layers.size && m_layers.get(index).depth > depth) {
+			++index;
+		}
+
+		if (index < m_layers.size && m_layers.get(index).depth == depth) {
+			return m_layers.get(index);
+		}
+
+		Layer layer = new Layer(depth, m_capacity);
+		m_layers.insert(index, layer);
+
+		return layer;
+	}
+}
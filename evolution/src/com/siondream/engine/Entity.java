@@ -1,7 +1,8 @@
 package com.siondream.engine;
 
-import java.util.HashMap;
+import java.util.Comparator;
 
+import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.utils.Array;
@@ -17,31 +18,69 @@ public class Entity implements Comparable<Entity>, Disposable {
 	public static final int EntityStateChanged = IDGenerator.getID("EntityStateChanged");
 	public static final int EntityBatched = IDGenerator.getID("EntityBatched");
 	public static final int Empty = IDGenerator.getID("empty");
+	public static final int Erase = IDGenerator.getID("erase");
+	
+	// Notifications that can be coalesced while waiting in the message queue
+	private static final int PendingMoved = 1;
+	private static final int PendingScaled = 2;
+	private static final int PendingRotated = 4;
+	private static final int PendingStateChanged = 8;
 	
 	private Logger m_logger = Game.getLogger();
+	private EntityManager m_manager;
 	private int m_id;
+	private int m_generation = 0;
 	private int m_type;
 	private String m_name;
-	private Vector3 m_position;
-	private Vector2 m_position2D;
-	private float m_rotation;
-	private float m_scale;
 	private int m_state;
 	private boolean m_batched = false;
+	private boolean m_stored = false;
+	private Prefab m_prefab = null;
+	private int m_pending = 0;
+	private MessageStats m_stats;
+	
+	// Transform lives in the manager's store, the vectors are views refreshed on every get
+	private TransformStore m_transforms;
+	private Vector3 m_position = new Vector3();
+	private Vector2 m_position2D = new Vector2();
+	
+	// Bookkeeping owned by EntityManager
+	DepthLayers.Layer m_layer = null;
+	int m_layerIndex = -1;
+	boolean m_destroyQueued = false;
+	
+	// Components initialize after the ones they depend on
+	private static final Comparator<Component> m_initComparator = new Comparator<Component>() {
+		@Override
+		public int compare(Component a, Component b) {
+			return a.getDescriptor().getOrder() - b.getDescriptor().getOrder();
+		}
+	};
 	
 	private static int m_maxComponents = Game.getSettings().getInt("maxComponents", 10);
 	private Array<Component> m_components = new Array<Component>(m_maxComponents);
-	private HashMap<Integer, Array<Component>> m_listeners = new HashMap<Integer, Array<Component>>(); // TODO alternative to hashmap?
+	private Array<Component> m_initOrder = new Array<Component>(m_maxComponents);
+	private Component[] m_slots = new Component[ComponentTypes.MaxTypes];
+	private long m_mask = 0L;
+	
+	// Payloads for typed messages, one per nesting level
+	private Array<Payload> m_payloads = new Array<Payload>(2);
+	private int m_payloadDepth = 0;
+	
+	// Listeners indexed directly by message id (ids from IDGenerator are dense)
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private Array<Component>[] m_listeners = new Array[32];
 	
-	Entity(int id) {
+	Entity(EntityManager manager, int id) {
 		m_logger = Game.getLogger();
+		m_manager = manager;
 		m_id = id;
 		m_type = Empty;
 		m_name = "";
-		m_position = Vector3.Zero.cpy();
-		m_position2D = Vector2.Zero.cpy();
-		m_rotation = 0.0f;
-		m_scale = 1.0f;
+		m_transforms = manager.getTransformStore();
+		m_transforms.ensureCapacity(id);
+		m_transforms.reset(id);
+		m_stats = manager.getMessageStats();
 		m_state = IDGenerator.getID("idle");
 		m_batched = false;
 	}
@@ -50,12 +89,22 @@ public class Entity implements Comparable<Entity>, Disposable {
 		return m_id;
 	}
 	
+	// Generational handle, stays valid only while this use of the entity lasts
+	public int getHandle() {
+		return (m_generation << EntityManager.SlotBits) | m_id;
+	}
+	
 	public int getType() {
 		return m_type;
 	}
 	
 	public void setType(int type) {
+		int previous = m_type;
 		m_type = type;
+		
+		if (previous != type) {
+			m_manager.onTypeChanged(this, previous);
+		}
 	}
 	
 	public String getName() {
@@ -66,12 +115,27 @@ public class Entity implements Comparable<Entity>, Disposable {
 		m_name = n;
 	}
 	
+	// Scratch vector shared by every call on this entity, the next call overwrites it so do not keep it
+	// Writing to it does not move the entity, use setPosition for that
 	public Vector3 getPosition() {
-		return m_position;
+		return m_position.set(m_transforms.getX(m_id), m_transforms.getY(m_id), m_transforms.getZ(m_id));
 	}
 	
+	// Same scratch rules as getPosition
 	public Vector2 getPosition2D() {
-		return m_position2D;
+		return m_position2D.set(m_transforms.getX(m_id), m_transforms.getY(m_id));
+	}
+	
+	public float getX() {
+		return m_transforms.getX(m_id);
+	}
+	
+	public float getY() {
+		return m_transforms.getY(m_id);
+	}
+	
+	public float getZ() {
+		return m_transforms.getZ(m_id);
 	}
 	
 	public void setPosition(Vector3 p) { 
@@ -79,35 +143,146 @@ public class Entity implements Comparable<Entity>, Disposable {
 	}
 	
 	public void setPosition(Vector2 p) {
-		setPosition(p.x, p.y, m_position.z);
+		setPosition(p.x, p.y, getZ());
 	}
 	
+	// World position, children keep it relative to their parent from then on
 	public void setPosition(float x, float y, float z) {
-		m_position.x = x;
-		m_position.y = y;
-		m_position.z = z;
-		m_position2D.x = x;
-		m_position2D.y = y;
-		onMessage(null, EntityMoved, null);
+		int parent = m_transforms.getParent(m_id);
+		
+		if (parent != 0) {
+			storeLocalPosition(parent, x, y, z);
+		}
+		
+		writePosition(x, y, z);
 	}
 	
 	public float getScale() {
-		return m_scale;
+		return m_transforms.getScale(m_id);
 	}
 	
 	public void setScale(float s) {
-		m_scale = s;
-		onMessage(null, EntityScaled, null);
+		int parent = m_transforms.getParent(m_id);
+		
+		if (parent != 0) {
+			float parentScale = m_transforms.getScale(parent);
+			m_transforms.setLocalScale(m_id, parentScale != 0.0f? s / parentScale : s);
+		}
+		
+		writeScale(s);
 	}
 	
 	public float getRotation() {
-		return m_rotation;
+		return m_transforms.getRotation(m_id);
 	}
 	
 	public void setRotation(float rot) {
-		m_rotation = rot;
-		m_rotation = m_rotation % 360.0f;
-		onMessage(null, EntityRotated, null);
+		int parent = m_transforms.getParent(m_id);
+		
+		if (parent != 0) {
+			m_transforms.setLocalRotation(m_id, rot - m_transforms.getRotation(parent));
+		}
+		
+		writeRotation(rot);
+	}
+	
+	// Transform to draw with, blended between the last two simulation steps
+	
+	public float getRenderX() {
+		return m_transforms.getRenderX(m_id);
+	}
+	
+	public float getRenderY() {
+		return m_transforms.getRenderY(m_id);
+	}
+	
+	public float getRenderRotation() {
+		return m_transforms.getRenderRotation(m_id);
+	}
+	
+	public float getRenderScale() {
+		return m_transforms.getRenderScale(m_id);
+	}
+	
+	public boolean isInterpolated() {
+		return m_transforms.isInterpolated(m_id);
+	}
+	
+	// Draws the entity at its current transform, without blending from where it was
+	public void skipInterpolation() {
+		m_transforms.snap(m_id);
+	}
+	
+	// Hierarchy, children follow their parent once per frame in EntityManager.update
+	
+	public Entity getParent() {
+		return m_manager.get(m_transforms.getParent(m_id));
+	}
+	
+	// Keeps the current world transform, null detaches the entity
+	public void setParent(Entity parent) {
+		if (parent == null) {
+			m_transforms.unlink(m_id);
+			return;
+		}
+		
+		if (parent.m_manager != m_manager || m_transforms.isAncestor(m_id, parent.m_id)) {
+			m_logger.error("Entity: " + this + " cannot be a child of " + parent);
+			return;
+		}
+		
+		int slot = parent.m_id;
+		float parentScale = m_transforms.getScale(slot);
+		
+		storeLocalPosition(slot, getX(), getY(), getZ());
+		m_transforms.setLocalRotation(m_id, getRotation() - m_transforms.getRotation(slot));
+		m_transforms.setLocalScale(m_id, parentScale != 0.0f? getScale() / parentScale : getScale());
+		m_transforms.link(m_id, slot);
+	}
+	
+	public float getLocalX() {
+		return m_transforms.getLocalX(m_id);
+	}
+	
+	public float getLocalY() {
+		return m_transforms.getLocalY(m_id);
+	}
+	
+	public float getLocalZ() {
+		return m_transforms.getLocalZ(m_id);
+	}
+	
+	// Position relative to the parent, same as setPosition for root entities
+	public void setLocalPosition(float x, float y, float z) {
+		if (m_transforms.getParent(m_id) == 0) {
+			setPosition(x, y, z);
+			return;
+		}
+		
+		m_transforms.setLocalPosition(m_id, x, y, z);
+		applyParentTransform();
+	}
+	
+	// Bumped on every actual transform change, consumers compare it instead of listening
+	public int getTransformVersion() {
+		return m_transforms.getVersion(m_id);
+	}
+	
+	// Recomputes the world transform from the parent's, called by the hierarchy pass
+	void applyParentTransform() {
+		int parent = m_transforms.getParent(m_id);
+		float parentScale = m_transforms.getScale(parent);
+		float parentRotation = m_transforms.getRotation(parent);
+		float localX = m_transforms.getLocalX(m_id) * parentScale;
+		float localY = m_transforms.getLocalY(m_id) * parentScale;
+		float cos = MathUtils.cosDeg(parentRotation);
+		float sin = MathUtils.sinDeg(parentRotation);
+		
+		writePosition(m_transforms.getX(parent) + localX * cos - localY * sin,
+					  m_transforms.getY(parent) + localX * sin + localY * cos,
+					  m_transforms.getZ(parent) + m_transforms.getLocalZ(m_id));
+		writeRotation(parentRotation + m_transforms.getLocalRotation(m_id));
+		writeScale(parentScale * m_transforms.getLocalScale(m_id));
 	}
 	
 	public int getState() {
@@ -115,10 +290,41 @@ public class Entity implements Comparable<Entity>, Disposable {
 	}
 	
 	public void setState(int state) {
+		int previous = m_state;
 		m_state = state;
-		onMessage(null, EntityStateChanged, null);
+		
+		if (previous != state) {
+			m_manager.onStateChanged(this, previous);
+		}
+		
+		notify(EntityStateChanged, PendingStateChanged);
+		
+		if (m_state == Erase) {
+			destroy();
+		}
+	}
+	
+	// The entity is freed by its manager at the end of the frame
+	public void destroy() {
+		m_manager.destroy(this);
 	}
 
+	public void render() {
+		if (m_batched) {
+			for (int i = 0; i < m_components.size; ++i) {
+				m_components.get(i).render();
+			}
+		}
+	}
+	
+	public void capture(RenderSnapshot snapshot) {
+		if (m_batched) {
+			for (int i = 0; i < m_components.size; ++i) {
+				m_components.get(i).capture(snapshot);
+			}
+		}
+	}
+	
 	public void update(float deltaT) {
 		if (m_batched) {
 			for (int i = 0; i < m_components.size; ++i) {
@@ -145,19 +351,26 @@ public class Entity implements Comparable<Entity>, Disposable {
 		}
 	}
 	
+	@SuppressWarnings({"unchecked", "rawtypes"})
 	public void addListener(int type, Component component) {
-		Array<Component> components = m_listeners.get(type);
+		if (type >= m_listeners.length) {
+			Array<Component>[] listeners = new Array[Math.max(type + 1, m_listeners.length * 2)];
+			System.arraycopy(m_listeners, 0, listeners, 0, m_listeners.length);
+			m_listeners = listeners;
+		}
+		
+		Array<Component> components = m_listeners[type];
 		
 		if (components == null) {
-			components = new Array<Component>();
-			m_listeners.put(type, components);
+			components = new Array<Component>(2);
+			m_listeners[type] = components;
 		}
 		
 		components.add(component);
 	}
 	
 	public void removeListener(int type, Component component) {
-		Array<Component> components = m_listeners.get(type);
+		Array<Component> components = getListeners(type);
 		
 		if (components == null) {
 			return;
@@ -168,22 +381,24 @@ public class Entity implements Comparable<Entity>, Disposable {
 		}
 	}
 	
+	public boolean hasListeners(int type) {
+		Array<Component> components = getListeners(type);
+		return components != null && components.size > 0;
+	}
+	
 	public void onMessage(Component sender, int type, Object data) {
 		if (m_batched) {
-			Array<Component> components = m_listeners.get(type);
+			Array<Component> components = getListeners(type);
 			
-			if (components == null) {
-				if (m_type == IDGenerator.getID("item"))
-				{
-					m_logger.error("Entity on message: no listeners in " + toString() + " for event " + IDGenerator.getString(type));
-				}
+			if (m_stats.isEnabled()) {
+				m_stats.record(sender, this, type);
+			}
+			
+			if (components == null || components.size == 0) {
 				return;
 			}
 			
 			for (int i = 0; i < components.size; ++i) {
-				if (m_type == IDGenerator.getID("item")) {
-					m_logger.error(toString() + " sending event of type " + IDGenerator.getString(type) +  " to " + components.get(i).toString());
-				}
 				components.get(i).onMessage(sender, type, data);
 			}
 		}
@@ -192,50 +407,145 @@ public class Entity implements Comparable<Entity>, Disposable {
 		}
 	}
 	
+	// Goes through the message queue when the manager has one, else same as onMessage
+	public void postMessage(Component sender, int type, Object data) {
+		MessageQueue queue = m_manager.getMessageQueue();
+		
+		if (queue != null) {
+			queue.post(this, sender, type, data);
+		}
+		else {
+			onMessage(sender, type, data);
+		}
+	}
+	
+	// Typed messages hand receivers a Payload instead of boxing the values
+	public void onMessage(Component sender, int type, int intValue, float floatValue) {
+		// Listeners may send typed messages too, each nesting level gets its own payload
+		if (m_payloadDepth == m_payloads.size) {
+			m_payloads.add(new Payload());
+		}
+		
+		Payload payload = m_payloads.get(m_payloadDepth++).set(intValue, floatValue);
+		onMessage(sender, type, payload);
+		--m_payloadDepth;
+	}
+	
+	public void postMessage(Component sender, int type, int intValue, float floatValue) {
+		MessageQueue queue = m_manager.getMessageQueue();
+		
+		if (queue != null) {
+			queue.post(this, sender, type, intValue, floatValue);
+		}
+		else {
+			onMessage(sender, type, intValue, floatValue);
+		}
+	}
+	
+	// Called by the manager every time the entity is handed out of the pool
+	void activate() {
+		m_generation = (m_generation + 1) & 0xFFFF;
+		
+		if (m_generation == 0) {
+			m_generation = 1;
+		}
+	}
+	
+	void deliver(Component sender, int type, Object data) {
+		m_pending &= ~getPendingBit(type);
+		onMessage(sender, type, data);
+	}
+	
 	public void addComponent(Component component) {
+		int index = component.getIndex();
+		
+		if (index == -1) {
+			m_logger.error(toString() + " component " + component.getName() + " has no type index");
+			return;
+		}
+		
+		if (m_slots[index] != null) {
+			m_logger.error(toString() + " already has a " + component.getName());
+			return;
+		}
+		
 		m_components.add(component);
+		m_slots[index] = component;
+		m_mask |= 1L << index;
+		m_manager.onComponentAdded(this, component);
 	}
 
 	public Component getComponent(int type) {
-		for (int i = 0; i < m_components.size; ++i) {
-			Component component = m_components.get(i);
-			
-			if (component.getType() == type) {
-				return component;
-			}
-		}
-		
-		m_logger.info(toString() + " component " + IDGenerator.getString(type) + " not found");
-		
-		return null;
+		int index = ComponentTypes.find(type);
+		return index != -1? m_slots[index] : null;
+	}
+	
+	public long getComponentMask() {
+		return m_mask;
+	}
+	
+	public boolean hasComponents(long mask) {
+		return (m_mask & mask) == mask;
 	}
 	
 	public void batch() {
+		batch(true);
+	}
+	
+	public void batch(boolean checkDependencies) {
 		m_batched = true;
 		
-		// Check dependencies for every component
-		for (int i = 0; i < m_components.size; ++i) {
-			Component component = m_components.get(i);
+		// Check dependencies for every component, a mask test against its class descriptor
+		for (int i = 0; checkDependencies && i < m_components.size; ++i) {
+			ComponentDescriptor descriptor = m_components.get(i).getDescriptor();
 			
-			if (!checkDependencies(component.getDependencies())) {
-				m_logger.error(toString() + ": dependency error in " + component.getName());
+			if (!descriptor.isValid() || !hasComponents(descriptor.getRequired())) {
+				m_logger.error(toString() + ": dependency error in " + descriptor.getName());
 				m_batched = false;
 			}
 		}
 		
-		// If we meet dependencies, sort components by priority
+		// If we meet dependencies, sort components by priority to update and by dependencies to initialize
 		if (m_batched) {
 			m_components.sort();
+			m_initOrder.clear();
+			m_initOrder.addAll(m_components);
+			m_initOrder.sort(m_initComparator);
+			store();
 		}
 		
 		onMessage(null, EntityBatched, null);
 	}
 	
+	public boolean isBatched() {
+		return m_batched;
+	}
+	
+	public Prefab getPrefab() {
+		return m_prefab;
+	}
+	
+	void setPrefab(Prefab prefab) {
+		m_prefab = prefab;
+	}
+	
+	// Prefab instances keep their components while they wait in the pool
+	void sleep() {
+		onMessage(null, PhysicsComponent.DisablePhysics, null);
+		Game.getTweenManager().killTarget(this);
+		cancelMessages();
+		unstore();
+	}
+	
+	void wake() {
+		store();
+	}
+	
 	public void fetchAssets() {
 		if (m_batched) {
-			// Tell components to fetch their assets
-			for (int i = 0; i < m_components.size; ++i) {
-				m_components.get(i).fetchAssets();
+			// Tell components to fetch their assets, dependencies first
+			for (int i = 0; i < m_initOrder.size; ++i) {
+				m_initOrder.get(i).fetchAssets();
 			}
 		}
 		else {
@@ -248,21 +558,39 @@ public class Entity implements Comparable<Entity>, Disposable {
 		// Clean attributes for reuse
 		m_type = Empty;
 		m_name = "";
-		m_position.x = m_position.y = m_position.z = 0.0f;
-		m_position2D.x = m_position2D.y = 0.0f;
-		m_rotation = 0.0f;
-		m_scale = 1.0f;
+		m_transforms.reset(m_id);
 		m_state = IDGenerator.getID("idle"); // TODO constants system
 		m_batched = false;
+		m_prefab = null;
+		
+		// Queued messages must not reach whoever reuses this entity
+		cancelMessages();
+		
+		// Take components out of the component storage before cleaning them
+		unstore();
 		
 		// Clean components
 		for (int i = 0; i < m_components.size; ++i) {
 			m_components.get(i).dispose();
 		}
 		
-		// Remove list of components
+		// Remove list of components, pooled classes go back to their pool
+		for (int i = 0; i < m_components.size; ++i) {
+			Component component = m_components.get(i);
+			m_slots[component.getIndex()] = null;
+			ComponentPools.free(component);
+		}
+		
 		m_components.clear();
-		m_listeners.clear();
+		m_initOrder.clear();
+		m_mask = 0L;
+		
+		// Keep the listener arrays around for the next time the entity is used
+		for (int i = 0; i < m_listeners.length; ++i) {
+			if (m_listeners[i] != null) {
+				m_listeners[i].clear();
+			}
+		}
 	}
 	
 	@Override
@@ -301,7 +629,7 @@ public class Entity implements Comparable<Entity>, Disposable {
 	public int compareTo(Entity o) {
 		// Comparing by position along z eases z-sorting for rendering
 		
-		float result = m_position.z - o.m_position.z;
+		float result = getZ() - o.getZ();
 		
 		if (result < 0) {
 			return 1;
@@ -314,13 +642,122 @@ public class Entity implements Comparable<Entity>, Disposable {
 		}
 	}
 	
-	private boolean checkDependencies(Array<Integer> dependencies) {
-		for (int i = 0; i < dependencies.size; ++i) {
-			if (getComponent(dependencies.get(i)) == null) {
-				return false;
+	private void cancelMessages() {
+		MessageQueue queue = m_manager.getMessageQueue();
+		
+		if (queue != null && queue.size() > 0) {
+			queue.cancel(this);
+		}
+		
+		m_pending = 0;
+		m_destroyQueued = false;
+	}
+	
+	private void writePosition(float x, float y, float z) {
+		boolean depthChanged = getZ() != z;
+		
+		if (!m_transforms.setPosition(m_id, x, y, z)) {
+			return;
+		}
+		
+		// Only a change along z can break the render order
+		if (depthChanged) {
+			m_manager.onDepthChanged(this);
+		}
+		
+		notify(EntityMoved, PendingMoved);
+	}
+	
+	private void writeScale(float s) {
+		if (m_transforms.setScale(m_id, s)) {
+			notify(EntityScaled, PendingScaled);
+		}
+	}
+	
+	private void writeRotation(float rot) {
+		if (m_transforms.setRotation(m_id, rot % 360.0f)) {
+			notify(EntityRotated, PendingRotated);
+		}
+	}
+	
+	// Inverse of the parent transform, so the child lands at the given world position
+	private void storeLocalPosition(int parent, float x, float y, float z) {
+		float parentScale = m_transforms.getScale(parent);
+		float parentRotation = m_transforms.getRotation(parent);
+		float cos = MathUtils.cosDeg(parentRotation);
+		float sin = MathUtils.sinDeg(parentRotation);
+		float dx = x - m_transforms.getX(parent);
+		float dy = y - m_transforms.getY(parent);
+		float inverseScale = parentScale != 0.0f? 1.0f / parentScale : 1.0f;
+		
+		m_transforms.setLocalPosition(m_id,
+									  (dx * cos + dy * sin) * inverseScale,
+									  (dy * cos - dx * sin) * inverseScale,
+									  z - m_transforms.getZ(parent));
+	}
+	
+	private void notify(int type, int bit) {
+		// Nothing is sent unless somebody listens, most transform consumers poll the version instead
+		if (!hasListeners(type)) {
+			return;
+		}
+		
+		MessageQueue queue = m_manager.getMessageQueue();
+		
+		if (queue == null) {
+			onMessage(null, type, null);
+		}
+		else if ((m_pending & bit) == 0) {
+			m_pending |= bit;
+			queue.post(this, null, type, null);
+		}
+		else {
+			queue.coalesce();
+		}
+	}
+	
+	private static int getPendingBit(int type) {
+		if (type == EntityMoved) {
+			return PendingMoved;
+		}
+		else if (type == EntityScaled) {
+			return PendingScaled;
+		}
+		else if (type == EntityRotated) {
+			return PendingRotated;
+		}
+		else if (type == EntityStateChanged) {
+			return PendingStateChanged;
+		}
+		
+		return 0;
+	}
+	
+	private Array<Component> getListeners(int type) {
+		return (type >= 0 && type < m_listeners.length)? m_listeners[type] : null;
+	}
+	
+	private void store() {
+		ComponentStore store = m_manager.getComponentStore();
+		
+		if (store != null && !m_stored) {
+			for (int i = 0; i < m_components.size; ++i) {
+				store.add(m_components.get(i));
+			}
+			
+			m_stored = true;
+		}
+	}
+	
+	private void unstore() {
+		ComponentStore store = m_manager.getComponentStore();
+		
+		if (store != null && m_stored) {
+			for (int i = 0; i < m_components.size; ++i) {
+				store.remove(m_components.get(i));
 			}
 		}
 		
-		return true;
+		m_stored = false;
 	}
 }
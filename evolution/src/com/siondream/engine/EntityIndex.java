@@ -0,0 +1,92 @@
+package com.siondream.engine;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntMap;
+
+// Active entities grouped by an int key, an entity can live in several buckets of the same index
+class EntityIndex {
+
+	private static class Bucket {
+		Array<Entity> entities;
+
+		// Position of every entity in the bucket, indexed by entity id
+		int[] positions;
+
+		Bucket(int capacity) {
+			entities = new Array<Entity>(false, capacity);
+			positions = new int[capacity + 1];
+		}
+	}
+
+	private IntMap<Bucket> m_buckets = new IntMap<Bucket>();
+	private int m_capacity;
+
+	EntityIndex(int capacity) {
+		m_capacity = capacity;
+	}
+
+	Array<Entity> get(int key) {
+		Bucket bucket = m_buckets.get(key);
+		return bucket != null? bucket.entities : null;
+	}
+
+	int count(int key) {
+		Bucket bucket = m_buckets.get(key);
+		return bucket != null? bucket.entities.size : 0;
+	}
+
+	void add(int key, Entity entity) {
+		Bucket bucket = m_buckets.get(key);
+
+		if (bucket == null) {
+			bucket = new Bucket(m_capacity);
+			m_buckets.put(key, bucket);
+		}
+
+		int id = entity.getID();
+
+		if (id >= bucket.positions.length) {
+			int[] positions = new int[Math.max(id + 1, bucket.positions.length * 2)];
+			System.arraycopy(bucket.positions, 0, positions, 0, bucket.positions.length);
+			bucket.positions = positions;
+		}
+
+		bucket.positions[id] = bucket.entities.size;
+		bucket.entities.add(entity);
+	}
+
+	// Swap remove, buckets are unordered
+	void remove(int key, Entity entity) {
+		Bucket bucket = m_buckets.get(key);
+
+		if (bucket == null || bucket.entities.size == 0) {
+			return;
+		}
+
+		int id = entity.getID();
+
+		// Buckets only grow in add, an id past the end was never added to this one
+		if (id >= bucket.positions.length) {
+			return;
+		}
+
+		int position = bucket.positions[id];
+
+		if (position >= bucket.entities.size || bucket.entities.get(position) != entity) {
+			return;
+		}
+
+		Entity last = bucket.entities.pop();
+
+		if (last != entity) {
+			bucket.entities.set(position, last);
+			bucket.positions[last.getID()] = position;
+		}
+	}
+
+	void clear() {
+		for (Bucket bucket : m_buckets.values()) {
+			bucket.entities.clear();
+		}
+	}
+}
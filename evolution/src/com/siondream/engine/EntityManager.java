@@ -1,28 +1,73 @@
 package com.siondream.engine;
 
 import com.badlogic.gdx.utils.Array;
-import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
 import com.badlogic.gdx.utils.Logger;
 import com.badlogic.gdx.utils.Pool;
 
 public class EntityManager extends Pool<Entity> {
 
+	// Handles pack the entity slot (its id) in the low bits and a generation in the high bits
+	public static final int NullHandle = 0;
+	static final int SlotBits = 16;
+	static final int SlotMask = (1 << SlotBits) - 1;
+	static final int MaxSlots = 1 << SlotBits;
+
 	private static Logger m_logger = Game.getLogger();
 	
 	private int m_nextID = 1;
-	private IntMap<Entity> m_map;
-	private Array<Entity> m_sorted;
+	private Entity[] m_slots;
+	private DepthLayers m_layers;
+	private IntArray m_destroyed;
+	private ComponentStore m_store;
+	private TransformStore m_transforms;
+	private MessageQueue m_queue = null;
+	private MessageStats m_stats;
+	private PrefabManager m_prefabs;
+	private SystemScheduler m_scheduler;
+	private IntArray m_hierarchyQueue = new IntArray();
+	private RenderSnapshot m_snapshot = null;
+	
+	// Indexes for queries, kept up to date as entities change type, state or components
+	private EntityIndex m_byType;
+	private EntityIndex m_byState;
+	private EntityIndex m_byComponent;
+	private Array<Entity> m_none = new Array<Entity>(0);
 	
 	// Constructors
 	public EntityManager() {
-		this(Game.getSettings().getInt("entityPoolSize", 100));
+		this(Game.getSettings().getInt("entityPoolSize", 100),
+			 Game.getSettings().getBoolean("queuedMessages", false));
 	}
 	
 	public EntityManager(int capacity) {
-		super(capacity, capacity);
+		this(capacity, false);
+	}
+	
+	public EntityManager(int capacity, boolean queuedMessages) {
+		// Unbounded, an entity the pool dropped would take its slot id with it and ids would run out
+		super(capacity, Integer.MAX_VALUE);
+		
+		m_slots = new Entity[capacity + 1];
+		m_transforms = new TransformStore(capacity);
+		m_stats = new MessageStats();
+		m_layers = new DepthLayers(capacity);
+		m_destroyed = new IntArray(false, capacity);
+		m_byType = new EntityIndex(capacity);
+		m_byState = new EntityIndex(capacity);
+		m_byComponent = new EntityIndex(capacity);
 		
-		m_map = new IntMap<Entity>(capacity);
-		m_sorted = new Array<Entity>(true, capacity);
+		// Components are packed per type so the simulation runs them by priority across entities
+		m_store = new ComponentStore(capacity);
+		
+		// Queued mode delivers entity messages in a single flush per frame
+		if (queuedMessages) {
+			m_queue = new MessageQueue(Game.getSettings().getInt("messageQueueSize", capacity * 4));
+		}
+		
+		m_prefabs = new PrefabManager(this);
+		m_scheduler = new SystemScheduler(this, Game.getSettings().getInt("systemChunkSize", 64));
 		
 		m_logger.info("EntityManager: creating entity manager with pool size " + capacity);
 	}
@@ -30,22 +75,314 @@ public class EntityManager extends Pool<Entity> {
 	// Accesor
 	
 	public Entity get(int id) {
-		return m_map.get(id);
+		return (id > 0 && id < m_slots.length)? m_slots[id] : null;
+	}
+	
+	// Returns null if the handle's entity has been freed, even if its slot was reused
+	public Entity resolve(int handle) {
+		Entity entity = get(handle & SlotMask);
+		return (entity != null && entity.getHandle() == handle)? entity : null;
+	}
+	
+	public boolean isValid(int handle) {
+		return resolve(handle) != null;
+	}
+	
+	public boolean isActive(Entity entity) {
+		return entity != null && get(entity.getID()) == entity;
+	}
+	
+	public TransformStore getTransformStore() {
+		return m_transforms;
+	}
+	
+	public ComponentStore getComponentStore() {
+		return m_store;
+	}
+	
+	public MessageStats getMessageStats() {
+		return m_stats;
+	}
+	
+	public MessageQueue getMessageQueue() {
+		return m_queue;
+	}
+	
+	public PrefabManager getPrefabManager() {
+		return m_prefabs;
+	}
+	
+	public SystemScheduler getScheduler() {
+		return m_scheduler;
+	}
+	
+	// Queries
+	
+	// Live views of the indexes, free entities through freeWithType/freeWithState instead of while iterating them
+	public Array<Entity> getWithType(int type) {
+		Array<Entity> entities = m_byType.get(type);
+		return entities != null? entities : m_none;
+	}
+	
+	public Array<Entity> getWithState(int state) {
+		Array<Entity> entities = m_byState.get(state);
+		return entities != null? entities : m_none;
+	}
+	
+	public int countWithType(int type) {
+		return m_byType.count(type);
+	}
+	
+	public int countWithState(int state) {
+		return m_byState.count(state);
+	}
+	
+	// Adds every active entity with the given type and state
+	public void query(int type, int state, Array<Entity> entities) {
+		boolean byType = m_byType.count(type) <= m_byState.count(state);
+		Array<Entity> candidates = byType? getWithType(type) : getWithState(state);
+		
+		for (int i = 0; i < candidates.size; ++i) {
+			Entity entity = candidates.get(i);
+			
+			if (entity.getType() == type && entity.getState() == state) {
+				entities.add(entity);
+			}
+		}
+	}
+	
+	// Adds every active entity that has all the components in mask
+	public void query(long mask, Array<Entity> entities) {
+		if (mask == 0L) {
+			for (int i = 0; i < m_layers.getLayerCount(); ++i) {
+				entities.addAll(m_layers.getLayer(i));
+			}
+			
+			return;
+		}
+		
+		// Walk the smallest bucket among the required component types
+		Array<Entity> candidates = null;
+		
+		for (int i = 0; i < ComponentTypes.getCount(); ++i) {
+			if ((mask & (1L << i)) != 0L) {
+				Array<Entity> bucket = m_byComponent.get(i);
+				
+				if (bucket == null || bucket.size == 0) {
+					return;
+				}
+				
+				if (candidates == null || bucket.size < candidates.size) {
+					candidates = bucket;
+				}
+			}
+		}
+		
+		if (candidates == null) {
+			return;
+		}
+		
+		for (int i = 0; i < candidates.size; ++i) {
+			Entity entity = candidates.get(i);
+			
+			if (entity.hasComponents(mask)) {
+				entities.add(entity);
+			}
+		}
 	}
 	
-	// Update entities
+	public Entity spawn(int prefabID, float x, float y, float z) {
+		return m_prefabs.spawn(prefabID, x, y, z);
+	}
+	
+	// Simulation phase, nothing is drawn here
 	public void update(float deltaT) {
-		m_sorted.sort();
+		FrameProfiler profiler = Game.getFrameProfiler();
+		profiler.begin(FrameProfiler.Entities);
+		
+		// Systems run first, their work is picked up by the component updates
+		m_scheduler.update(deltaT);
+		
+		// Every component of a priority runs before the next priority starts
+		m_store.update(deltaT);
+		
+		// Children follow whatever their parents did this frame
+		updateHierarchy();
+		
+		if (m_queue != null) {
+			m_queue.flush();
+		}
+		
+		flushDestroyed();
+		
+		profiler.end(FrameProfiler.Entities);
+	}
+	
+	// Render phase, call inside SpriteBatch.begin/end once the simulation is done
+	public void render() {
+		// The simulation thread may be moving entities right now, draw what it captured last
+		if (m_snapshot != null) {
+			m_snapshot.draw(Game.getSpriteBatch(), Game.getFrustum());
+			return;
+		}
+		
+		// Layers are kept in z order as entities spawn and move along z
+		for (int i = 0; i < m_layers.getLayerCount(); ++i) {
+			Array<Entity> entities = m_layers.getLayer(i);
+			
+			for (int j = 0; j < entities.size; ++j) {
+				entities.get(j).render();
+			}
+		}
+	}
 	
-		for (int i = 0; i < m_sorted.size; ++i) {
-			m_sorted.get(i).update(deltaT);
+	// Same order as render, runs on the simulation thread when there is one
+	public void capture(RenderSnapshot snapshot) {
+		for (int i = 0; i < m_layers.getLayerCount(); ++i) {
+			Array<Entity> entities = m_layers.getLayer(i);
+			
+			for (int j = 0; j < entities.size; ++j) {
+				entities.get(j).capture(snapshot);
+			}
 		}
 	}
 	
+	// With a snapshot, render draws it instead of the live entities
+	public void setRenderSnapshot(RenderSnapshot snapshot) {
+		m_snapshot = snapshot;
+	}
+	
+	// Breadth first from every root that has something dirty, clean subtrees are not entered
+	private void updateHierarchy() {
+		IntArray queue = m_hierarchyQueue;
+		queue.clear();
+		m_transforms.getDirtyRoots(queue);
+		m_transforms.setPropagating(true);
+		
+		for (int head = 0; head < queue.size; ++head) {
+			int slot = queue.get(head);
+			boolean changed = m_transforms.consumeChanged(slot);
+			
+			for (int child = m_transforms.getFirstChild(slot); child != 0; child = m_transforms.getNextSibling(child)) {
+				if (changed) {
+					m_slots[child].applyParentTransform();
+				}
+				
+				if (m_transforms.needsVisit(child)) {
+					queue.add(child);
+				}
+			}
+		}
+		
+		m_transforms.setPropagating(false);
+	}
+	
+	// Children of a freed entity stay where they are as roots of their own
+	private void detach(Entity entity) {
+		int slot = entity.getID();
+		int child = m_transforms.getFirstChild(slot);
+		
+		while (child != 0) {
+			int next = m_transforms.getNextSibling(child);
+			m_transforms.unlink(child);
+			child = next;
+		}
+		
+		m_transforms.unlink(slot);
+	}
+	
 	// Tell entities to fetch their assets
 	public void fetchAssets() {
-		for (int i = 0; i < m_sorted.size; ++i) {
-			m_sorted.get(i).fetchAssets();
+		for (int i = 0; i < m_layers.getLayerCount(); ++i) {
+			Array<Entity> entities = m_layers.getLayer(i);
+			
+			for (int j = 0; j < entities.size; ++j) {
+				entities.get(j).fetchAssets();
+			}
+		}
+	}
+	
+	// Queue the entity to be freed at the end of the current update
+	public void destroy(Entity entity) {
+		if (isActive(entity) && !entity.m_destroyQueued) {
+			entity.m_destroyQueued = true;
+			m_destroyed.add(entity.getHandle());
+		}
+	}
+	
+	// Free every entity destroyed during the frame, cost depends only on how many died
+	public void flushDestroyed() {
+		for (int i = 0; i < m_destroyed.size; ++i) {
+			free(resolve(m_destroyed.get(i)));
+		}
+		
+		m_destroyed.clear();
+	}
+	
+	// Puts a pooled prefab instance back in the active containers
+	void wake(Entity entity) {
+		entity.activate();
+		m_slots[entity.getID()] = entity;
+		m_layers.add(entity);
+		entity.wake();
+		index(entity);
+	}
+	
+	// Disposes an inactive prefab instance and returns it to the entity pool
+	void recycle(Entity entity) {
+		entity.dispose();
+		super.free(entity);
+	}
+	
+	// Called by entities whenever their z changes
+	void onDepthChanged(Entity entity) {
+		m_layers.move(entity);
+	}
+	
+	// Called by entities when their type, state or components change
+	void onTypeChanged(Entity entity, int previous) {
+		if (isActive(entity)) {
+			m_byType.remove(previous, entity);
+			m_byType.add(entity.getType(), entity);
+		}
+	}
+	
+	void onStateChanged(Entity entity, int previous) {
+		if (isActive(entity)) {
+			m_byState.remove(previous, entity);
+			m_byState.add(entity.getState(), entity);
+		}
+	}
+	
+	void onComponentAdded(Entity entity, Component component) {
+		if (isActive(entity)) {
+			m_byComponent.add(component.getIndex(), entity);
+		}
+	}
+	
+	private void index(Entity entity) {
+		m_byType.add(entity.getType(), entity);
+		m_byState.add(entity.getState(), entity);
+		
+		long mask = entity.getComponentMask();
+		
+		for (int i = 0; i < ComponentTypes.getCount(); ++i) {
+			if ((mask & (1L << i)) != 0L) {
+				m_byComponent.add(i, entity);
+			}
+		}
+	}
+	
+	private void unindex(Entity entity) {
+		m_byType.remove(entity.getType(), entity);
+		m_byState.remove(entity.getState(), entity);
+		
+		long mask = entity.getComponentMask();
+		
+		for (int i = 0; i < ComponentTypes.getCount(); ++i) {
+			if ((mask & (1L << i)) != 0L) {
+				m_byComponent.remove(i, entity);
+			}
 		}
 	}
 	
@@ -54,8 +391,10 @@ public class EntityManager extends Pool<Entity> {
 	@Override
 	public Entity obtain() {
 		Entity entity = super.obtain();
-		m_map.put(entity.getID(), entity);
-		m_sorted.add(entity);
+		entity.activate();
+		m_slots[entity.getID()] = entity;
+		m_layers.add(entity);
+		index(entity);
 		
 		m_logger.info("EntityManager: obtaining entity (id: " + entity.getID() + ")");
 		
@@ -64,21 +403,26 @@ public class EntityManager extends Pool<Entity> {
 	
 	@Override
 	public void free(Entity entity) {
-		int id = (entity != null)? entity.getID() : 0;
+		if (!isActive(entity)) {
+			return;
+		}
 		
-		if (m_map.get(id) == null) {
+		unindex(entity);
+		detach(entity);
+		m_layers.remove(entity);
+		m_slots[entity.getID()] = null;
+		
+		// Prefab instances go back to their prefab with all their components
+		if (entity.getPrefab() != null) {
+			entity.sleep();
+			m_prefabs.release(entity);
 			return;
 		}
 		
 		m_logger.info("EntityManager: freeing entity (id: " + entity.getID() + ")");
 		
 		super.free(entity);
-		
 		entity.dispose();
-		
-		if ((m_map.remove(entity.getID()) == null) || !m_sorted.removeValue(entity, false)) {
-			m_logger.error("EntityManager: entity not found in active containers");
-		}
 	}
 	
 	@Override
@@ -94,41 +438,68 @@ public class EntityManager extends Pool<Entity> {
 		entities.clear();
 	}
 	
-//	public void freeWithState(int state) {
-//		for (int i = 0; i < m_sorted.size; ++i) {
-//			Entity entity = m_sorted.get(i);
-//			
-//			if (entity.getState() == state) {
-//				free(entity);
-//			}
-//		}
-//	}
-//	
-//	public void freeWithType(int type) {
-//		for (int i = 0; i < m_sorted.size; ++i) {
-//			Entity entity = m_sorted.get(i);
-//			
-//			if (entity.getType() == type) {
-//				free(entity);
-//			}
-//		}
-//	}
+	// Buckets are swap removed, walking them backwards visits every entity once
+	public void freeWithState(int state) {
+		Array<Entity> entities = getWithState(state);
+		
+		for (int i = entities.size - 1; i >= 0; --i) {
+			free(entities.get(i));
+		}
+	}
+	
+	public void freeWithType(int type) {
+		Array<Entity> entities = getWithType(type);
+		
+		for (int i = entities.size - 1; i >= 0; --i) {
+			free(entities.get(i));
+		}
+	}
 	
 	@Override
 	public void clear() {
 		m_logger.info("EntityManager: clearing all entities");
 		
-		for (int i = 0; i < m_sorted.size; ++i) {
-			m_sorted.get(i).dispose();
+		// Entities go back to the pool so their slots get reused with a new generation
+		for (int i = 0; i < m_layers.getLayerCount(); ++i) {
+			Array<Entity> entities = m_layers.getLayer(i);
+			
+			for (int j = 0; j < entities.size; ++j) {
+				Entity entity = entities.get(j);
+				entity.dispose();
+				m_slots[entity.getID()] = null;
+				super.free(entity);
+			}
+		}
+		
+		if (m_queue != null) {
+			m_queue.clear();
 		}
 		
-		super.clear();
-		m_map.clear();
-		m_sorted.clear();
+		m_layers.clear();
+		m_byType.clear();
+		m_byState.clear();
+		m_byComponent.clear();
+		m_destroyed.clear();
+		m_prefabs.clear();
+		m_store.clear();
+		m_transforms.clearHierarchy();
+		
+		// Level is over, report how well the component pools were sized
+		ComponentPools.logStats();
 	}
 	
 	@Override
 	protected Entity newObject() {
-		return new Entity(m_nextID++);
+		if (m_nextID >= MaxSlots) {
+			throw new GdxRuntimeException("EntityManager: out of entity slots");
+		}
+		
+		if (m_nextID >= m_slots.length) {
+			Entity[] slots = new Entity[Math.min(m_slots.length * 2, MaxSlots)];
+			System.arraycopy(m_slots, 0, slots, 0, m_slots.length);
+			m_slots = slots;
+		}
+		
+		return new Entity(this, m_nextID++);
 	}
 }
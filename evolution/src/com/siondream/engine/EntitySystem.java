@@ -0,0 +1,92 @@
+package com.siondream.engine;
+
+import com.badlogic.gdx.utils.Array;
+
+public abstract class EntitySystem {
+
+	protected String m_name;
+	protected boolean m_enabled = true;
+
+	// Entities are processed in independent chunks when true
+	protected boolean m_parallel;
+
+	// Component masks, entities need every required component to be processed
+	protected long m_required = 0L;
+	protected long m_reads = 0L;
+	protected long m_writes = 0L;
+
+	// Entities matched this frame, filled by the scheduler
+	Array<Entity> m_entities = new Array<Entity>(false, 64);
+
+	public EntitySystem(String name, boolean parallel) {
+		m_name = name;
+		m_parallel = parallel;
+	}
+
+	public String getName() {
+		return m_name;
+	}
+
+	public boolean isEnabled() {
+		return m_enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		m_enabled = enabled;
+	}
+
+	public boolean isParallel() {
+		return m_parallel;
+	}
+
+	public long getRequired() {
+		return m_required;
+	}
+
+	public long getReads() {
+		return m_reads;
+	}
+
+	public long getWrites() {
+		return m_writes;
+	}
+
+	// Two systems can run at the same time if neither writes what the other touches
+	public boolean conflictsWith(EntitySystem other) {
+		return (m_writes & (other.m_reads | other.m_writes)) != 0L ||
+			   (other.m_writes & m_reads) != 0L;
+	}
+
+	// Called on the main thread before any entity is processed
+	public void begin(float deltaT) {}
+
+	// Called from worker threads, only touch the components declared by the system
+	public abstract void process(Entity entity, float deltaT);
+
+	// Called on the main thread once every system in the phase has finished
+	public void end(float deltaT) {}
+
+	protected void requires(String componentName) {
+		long bit = getBit(componentName);
+		m_required |= bit;
+		m_reads |= bit;
+	}
+
+	protected void reads(String componentName) {
+		m_reads |= getBit(componentName);
+	}
+
+	protected void writes(String componentName) {
+		m_writes |= getBit(componentName);
+	}
+
+	private long getBit(String componentName) {
+		int index = ComponentTypes.getIndex(IDGenerator.getID(componentName));
+		return index != -1? 1L << index : 0L;
+	}
+
+	@Override
+	public String toString() {
+		return "EntitySystem (" + m_name + ")";
+	}
+}
@@ -0,0 +1,40 @@
+package com.siondream.engine;
+
+import com.badlogic.gdx.utils.IntMap;
+
+// Identifies fixtures and level bodies in contact callbacks without boxing, one instance per id
+public class FixtureTag {
+
+	private static IntMap<FixtureTag> m_tags = new IntMap<FixtureTag>();
+
+	private final int m_id;
+
+	private FixtureTag(int id) {
+		m_id = id;
+	}
+
+	public static FixtureTag get(int id) {
+		FixtureTag tag = m_tags.get(id);
+
+		if (tag == null) {
+			tag = new FixtureTag(id);
+			m_tags.put(id, tag);
+		}
+
+		return tag;
+	}
+
+	// True if userData is the tag for id
+	public static boolean is(Object userData, int id) {
+		return userData instanceof FixtureTag && ((FixtureTag)userData).m_id == id;
+	}
+
+	public int getID() {
+		return m_id;
+	}
+
+	@Override
+	public String toString() {
+		return "FixtureTag (" + IDGenerator.getString(m_id) + ")";
+	}
+}
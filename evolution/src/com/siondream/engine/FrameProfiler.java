@@ -0,0 +1,244 @@
+package com.siondream.engine;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Logger;
+import com.badlogic.gdx.utils.TimeUtils;
+
+// Time per engine phase each frame, kept as rolling histograms
+public class FrameProfiler {
+
+	// Engine phases, games add their own with addPhase
+	public static final int Frame = 0;
+	public static final int Tween = 1;
+	public static final int Physics = 2;
+	public static final int Entities = 3;
+	public static final int Map = 4;
+	public static final int HUD = 5;
+	public static final int Assets = 6;
+	public static final int Render = 7;
+	public static final int Sync = 8;
+
+	private static Logger m_logger = Game.getLogger();
+
+	private boolean m_enabled;
+	private boolean m_overlay;
+	private int m_window;
+	private float m_logInterval;
+	private float m_logTime = 0.0f;
+	private float m_csvInterval;
+	private float m_csvTime = 0.0f;
+	private float m_time = 0.0f;
+	private String m_csvFile;
+	private boolean m_csvStarted = false;
+	private Array<String> m_names = new Array<String>();
+	private Array<RollingTimings> m_timings = new Array<RollingTimings>();
+	private long[] m_starts = new long[8];
+	private StringBuilder m_text = new StringBuilder();
+	private BitmapFont m_font = null;
+
+	public FrameProfiler() {
+		this(Game.getSettings().getBoolean("profileFrames", false),
+			 Game.getSettings().getInt("profileWindow", 120));
+		
+		m_overlay = Game.getSettings().getBoolean("profileOverlay", false);
+		m_logInterval = Game.getSettings().getFloat("profileLogInterval", 5.0f);
+		m_csvInterval = Game.getSettings().getFloat("profileCsvInterval", 0.0f);
+		m_csvFile = Game.getSettings().getString("profileCsvFile", "profile.csv");
+	}
+
+	public FrameProfiler(boolean enabled, int window) {
+		m_enabled = enabled;
+		m_window = window;
+		m_overlay = false;
+		m_logInterval = 0.0f;
+		m_csvInterval = 0.0f;
+		m_csvFile = "profile.csv";
+		
+		addPhase("Frame");
+		addPhase("Tween");
+		addPhase("Physics");
+		addPhase("Entities");
+		addPhase("Map");
+		addPhase("HUD");
+		addPhase("Assets");
+		addPhase("Render");
+		addPhase("Sync");
+	}
+
+	public boolean isEnabled() {
+		return m_enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		m_enabled = enabled;
+	}
+
+	public boolean isOverlayVisible() {
+		return m_overlay;
+	}
+
+	public void setOverlayVisible(boolean overlay) {
+		m_overlay = overlay;
+	}
+
+	// Seconds between CSV rows, 0 stops the export
+	public void setCsvExport(String file, float interval) {
+		m_csvFile = file;
+		m_csvInterval = interval;
+		m_csvStarted = false;
+	}
+
+	public int addPhase(String name) {
+		m_names.add(name);
+		m_timings.add(new RollingTimings(m_window));
+		
+		if (m_starts.length < m_names.size) {
+			long[] starts = new long[m_names.size * 2];
+			System.arraycopy(m_starts, 0, starts, 0, m_starts.length);
+			m_starts = starts;
+		}
+		
+		return m_names.size - 1;
+	}
+
+	public int getPhaseCount() {
+		return m_names.size;
+	}
+
+	public String getPhaseName(int phase) {
+		return m_names.get(phase);
+	}
+
+	public RollingTimings getTimings(int phase) {
+		return m_timings.get(phase);
+	}
+
+	// A phase can run several times per frame, fixed steps for instance, the times add up
+	public void begin(int phase) {
+		if (m_enabled) {
+			m_starts[phase] = TimeUtils.nanoTime();
+		}
+	}
+
+	public void end(int phase) {
+		if (m_enabled) {
+			m_timings.get(phase).add(TimeUtils.nanoTime() - m_starts[phase]);
+		}
+	}
+
+	// Called once per frame by Game after everything has been drawn
+	public void endFrame(float deltaT) {
+		if (!m_enabled) {
+			return;
+		}
+		
+		for (int i = 0; i < m_timings.size; ++i) {
+			m_timings.get(i).endFrame();
+		}
+		
+		m_time += deltaT;
+		
+		if (m_logInterval > 0.0f) {
+			m_logTime += deltaT;
+			
+			if (m_logTime >= m_logInterval) {
+				m_logTime = 0.0f;
+				log();
+			}
+		}
+		
+		if (m_csvInterval > 0.0f) {
+			m_csvTime += deltaT;
+			
+			if (m_csvTime >= m_csvInterval) {
+				m_csvTime = 0.0f;
+				exportCsv();
+			}
+		}
+	}
+
+	public void log() {
+		m_logger.info("FrameProfiler: " + Gdx.graphics.getFramesPerSecond() + " fps");
+		
+		for (int i = 0; i < m_names.size; ++i) {
+			m_logger.info("FrameProfiler: " + m_names.get(i) + " " + m_timings.get(i));
+		}
+	}
+
+	// One row per phase, the header goes in the first time the file is written
+	public void exportCsv() {
+		StringBuilder rows = new StringBuilder();
+		
+		if (!m_csvStarted) {
+			rows.append("time,phase,last,min,avg,p95,p99,max\n");
+		}
+		
+		for (int i = 0; i < m_names.size; ++i) {
+			RollingTimings timings = m_timings.get(i);
+			rows.append(m_time).append(',')
+				.append(m_names.get(i)).append(',')
+				.append(timings.getLast()).append(',')
+				.append(timings.getMin()).append(',')
+				.append(timings.getAverage()).append(',')
+				.append(timings.getPercentile(95.0f)).append(',')
+				.append(timings.getPercentile(99.0f)).append(',')
+				.append(timings.getMax()).append('\n');
+		}
+		
+		try {
+			Gdx.files.local(m_csvFile).writeString(rows.toString(), m_csvStarted);
+			m_csvStarted = true;
+		}
+		catch (Exception e) {
+			m_logger.error("FrameProfiler: could not write " + m_csvFile + ", CSV export disabled " + e.getMessage());
+			m_csvInterval = 0.0f;
+		}
+	}
+
+	// Draws the histograms on top of everything, call inside SpriteBatch.begin/end with a y down camera
+	public void render(SpriteBatch batch, float x, float y) {
+		if (!m_enabled || !m_overlay) {
+			return;
+		}
+		
+		if (m_font == null) {
+			m_font = new BitmapFont(true);
+		}
+		
+		m_text.setLength(0);
+		m_text.append(Gdx.graphics.getFramesPerSecond()).append(" fps   avg / p95 / p99 / max ms\n");
+		
+		for (int i = 0; i < m_names.size; ++i) {
+			RollingTimings timings = m_timings.get(i);
+			m_text.append(m_names.get(i)).append("   ");
+			appendMillis(timings.getAverage()).append(" / ");
+			appendMillis(timings.getPercentile(95.0f)).append(" / ");
+			appendMillis(timings.getPercentile(99.0f)).append(" / ");
+			appendMillis(timings.getMax()).append('\n');
+		}
+		
+		m_font.drawMultiLine(batch, m_text, x, y);
+	}
+
+	public void dispose() {
+		if (m_font != null) {
+			m_font.dispose();
+			m_font = null;
+		}
+	}
+
+	// Two decimals without going through String.format
+	private StringBuilder appendMillis(float millis) {
+		int hundredths = Math.round(millis * 100.0f);
+		m_text.append(hundredths / 100).append('.');
+		
+		if (hundredths % 100 < 10) {
+			m_text.append('0');
+		}
+		
+		return m_text.append(hundredths % 100);
+	}
+}
@@ -7,7 +7,6 @@ import com.badlogic.gdx.ApplicationListener;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.assets.loaders.resolvers.InternalFileHandleResolver;
-import com.badlogic.gdx.graphics.FPSLogger;
 import com.badlogic.gdx.graphics.GL10;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
@@ -18,6 +17,7 @@ import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.physics.box2d.Box2DDebugRenderer;
 import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.GdxRuntimeException;
 import com.badlogic.gdx.utils.Logger;
 
 public class Game implements ApplicationListener {
@@ -33,7 +33,12 @@ public class Game implements ApplicationListener {
 	protected static Frustum m_frustum;
 	protected static TweenManager m_tweenManager;
 	protected static PlatformResolver m_platformResolver;
-	protected static FPSLogger m_fps;
+	protected static TaskRunner m_taskRunner = null;
+	protected static FrameProfiler m_profiler;
+	protected static AllocationCounter m_allocationCounter = null;
+	protected static AllocationTracker m_allocations;
+	protected static SimulationRunner m_simulationRunner = null;
+	protected static RenderSnapshot m_snapshot;
 	
 	protected static OrthographicCamera m_camera;
 	protected static OrthographicCamera m_HUDCamera;
@@ -41,7 +46,7 @@ public class Game implements ApplicationListener {
 	protected static int m_virtualHeight;
 	private float m_aspectRatio;
 	protected Rectangle m_viewport = new Rectangle(0, 0, 0, 0);
-	protected Matrix4 m_inv;
+	protected Matrix4 m_inv = new Matrix4();
 	
 	// Physics
 	public static float ppm;
@@ -50,6 +55,23 @@ public class Game implements ApplicationListener {
 	protected int m_velocityIterations;
 	protected int m_positionIterations;
 	private Box2DDebugRenderer m_box2DRenderer;
+	
+	// Fixed timestep, a step of 0 simulates once per frame with the frame time
+	protected float m_step;
+	protected int m_maxSteps;
+	protected float m_accumulator = 0.0f;
+	
+	// Simulation thread, frames only go there while every state allows it
+	protected boolean m_threadedSimulation = false;
+	protected boolean m_detached = false;
+	private float m_frameTime = 0.0f;
+	private final Runnable m_simulationFrame = new Runnable() {
+		@Override
+		public void run() {
+			step(m_frameTime);
+			capture();
+		}
+	};
 
 	@Override
 	public void create() {		
@@ -108,28 +130,91 @@ public class Game implements ApplicationListener {
 		
 		m_entityManager = new EntityManager();
 		
+		// Systems only go wide when the platform provides a threaded runner
+		boolean parallelSystems = m_taskRunner != null && m_settings.getBoolean("parallelSystems", false);
+		
+		if (parallelSystems) {
+			m_entityManager.getScheduler().setTaskRunner(m_taskRunner);
+		}
+		
+		m_entityManager.getScheduler().add(new AnimationSystem());
+		
 		// By default, no platform resolver
 		m_platformResolver = null;
 		
-		m_fps = new FPSLogger();
+		m_profiler = new FrameProfiler();
+		m_allocations = new AllocationTracker(m_allocationCounter);
+		
+		float rate = m_settings.getFloat("simulationRate", 60.0f);
+		m_step = rate > 0.0f? 1.0f / rate : 0.0f;
+		m_maxSteps = Math.max(m_settings.getInt("maxSimulationSteps", 5), 1);
+		
+		m_snapshot = new RenderSnapshot(m_settings.getInt("entityPoolSize", 100));
+		m_threadedSimulation = m_simulationRunner != null && m_settings.getBoolean("simulationThread", false);
+		
+		// The counter only sees the render thread, worker allocations would slip past the budget
+		if (m_allocations.isEnabled() && (m_threadedSimulation || parallelSystems)) {
+			if (m_settings.getBoolean("allocationFailOnBudget", false)) {
+				throw new GdxRuntimeException("Game: allocationFailOnBudget only counts the render thread, turn off simulationThread and parallelSystems");
+			}
+			
+			m_logger.info("Game: allocation tracking only counts the render thread, simulation and system threads are not included");
+		}
 	}
 
 	@Override
 	public void dispose() {
 		m_batch.dispose();
 		m_HUDBatch.dispose();
+		m_profiler.dispose();
+		
+		if (m_allocations.isEnabled()) {
+			m_allocations.log();
+		}
+		
+		if (m_taskRunner != null) {
+			m_taskRunner.dispose();
+		}
+		
+		// The simulation thread only runs inside render, it is idle by now
+		if (m_simulationRunner != null) {
+			m_simulationRunner.dispose();
+		}
 	}
 
 	@Override
 	public void render() {		
 		float deltaT = Gdx.graphics.getDeltaTime();
 		
+		m_allocations.beginFrame();
+		m_profiler.begin(FrameProfiler.Frame);
+		
 		Gdx.gl.glClearColor(0, 0, 0, 0);
 		Gdx.gl.glClear(GL10.GL_COLOR_BUFFER_BIT);
 		Gdx.gl.glEnable(GL10.GL_BLEND);
 		
+		// Decided every frame, loading and state changes touch GL so they stay on this thread
+		boolean detached = m_threadedSimulation && m_stateManager.allowsSimulationThread();
+		
+		if (detached != m_detached) {
+			m_detached = detached;
+			
+			// Nothing has been captured yet, the first detached frame draws the current state
+			if (m_detached) {
+				capture();
+			}
+			
+			m_entityManager.setRenderSnapshot(m_detached? m_snapshot : null);
+		}
+		
+		// What the simulation thread captured last frame becomes drawable
+		if (m_detached) {
+			m_snapshot.publish();
+			m_snapshot.applyCamera(m_camera);
+		}
+		
 		m_camera.update();
-		m_inv = m_camera.combined.cpy();
+		m_inv.set(m_camera.combined);
 		m_frustum.update(m_inv.inv());
 		
 		m_HUDCamera.update();
@@ -141,10 +226,114 @@ public class Game implements ApplicationListener {
 		
 		m_batch.setProjectionMatrix(m_camera.combined);
 		m_HUDBatch.setProjectionMatrix(m_HUDCamera.combined);
+		
+		// Simulate everything first, then draw, or draw the snapshot while the next frame simulates
+		if (m_detached) {
+			m_stateManager.publish();
+			m_frameTime = deltaT;
+			m_simulationRunner.start(m_simulationFrame);
+		}
+		else {
+			step(deltaT);
+			m_stateManager.publish();
+		}
+		
+		m_profiler.begin(FrameProfiler.Render);
+		m_stateManager.render();
+		
+		// Bodies are being stepped on the other thread in detached frames
+		if (!m_detached) {
+			m_box2DRenderer.render(m_world, m_camera.combined);
+		}
+		
+		m_profiler.end(FrameProfiler.Render);
+		
+		if (m_detached) {
+			m_profiler.begin(FrameProfiler.Sync);
+			m_simulationRunner.finish();
+			m_profiler.end(FrameProfiler.Sync);
+			
+			// Pushes and pops requested by the simulation thread
+			m_stateManager.performOperations();
+		}
+		
+		m_profiler.end(FrameProfiler.Frame);
+		
+		// Drawn after the frame is measured so the overlay does not count itself
+		if (m_profiler.isOverlayVisible()) {
+			m_HUDBatch.begin();
+			m_profiler.render(m_HUDBatch, 10.0f, 10.0f);
+			m_HUDBatch.end();
+		}
+		
+		// Whatever the profiler allocates when logging falls outside the measured frame
+		m_allocations.endFrame();
+		m_profiler.endFrame(deltaT);
+		
+		// Per drawn frame whatever the state, a frame can run several fixed steps or none at all
+		MessageStats stats = m_entityManager.getMessageStats();
+		
+		if (stats.isEnabled()) {
+			stats.endFrame(deltaT);
+		}
+	}
+
+	// Fixed steps for the frame time, then how far rendering is between the last two
+	private void step(float deltaT) {
+		TransformStore transforms = m_entityManager.getTransformStore();
+		
+		if (m_step > 0.0f) {
+			m_accumulator += deltaT;
+			int steps = 0;
+			
+			while (m_accumulator >= m_step && steps < m_maxSteps) {
+				// A state can leave the simulation thread halfway, the GL thread picks up the rest
+				if (m_detached && !m_stateManager.allowsSimulationThread()) {
+					break;
+				}
+				
+				simulate(m_step);
+				m_accumulator -= m_step;
+				++steps;
+			}
+			
+			// Too far behind to catch up, the simulation slows down instead of spiralling
+			if (steps == m_maxSteps && m_accumulator >= m_step) {
+				m_accumulator %= m_step;
+			}
+			
+			transforms.setAlpha(Math.min(m_accumulator / m_step, 1.0f));
+		}
+		else {
+			simulate(deltaT);
+			transforms.setAlpha(1.0f);
+		}
+	}
+	
+	// Fills the back buffer of the snapshot, on whichever thread simulated last
+	private void capture() {
+		m_snapshot.begin();
+		m_entityManager.capture(m_snapshot);
+		m_snapshot.setCamera(m_camera);
+	}
+	
+	protected void simulate(float deltaT) {
+		m_entityManager.getTransformStore().storePrevious();
+		
+		m_profiler.begin(FrameProfiler.Tween);
 		m_tweenManager.update(deltaT);
+		m_profiler.end(FrameProfiler.Tween);
+		
+		m_profiler.begin(FrameProfiler.Physics);
 		m_world.step(deltaT, m_velocityIterations, m_positionIterations);
-		//m_stateManager.update(deltaT);
-		m_box2DRenderer.render(m_world, m_camera.combined);
+		m_profiler.end(FrameProfiler.Physics);
+		
+		if (m_detached) {
+			m_stateManager.updateStates(deltaT);
+		}
+		else {
+			m_stateManager.update(deltaT);
+		}
 	}
 
 	@Override
@@ -241,6 +430,10 @@ public class Game implements ApplicationListener {
 		return m_platformResolver;
 	}
 	
+	public static FrameProfiler getFrameProfiler() {
+		return m_profiler;
+	}
+	
 	public static EntityManager getEntityManager() {
 		return m_entityManager;
 	}
@@ -252,4 +445,30 @@ public class Game implements ApplicationListener {
 	public static void setPlatformResolver(PlatformResolver platformResolver) {
 		m_platformResolver = platformResolver;
 	}
+	
+	public static TaskRunner getTaskRunner() {
+		return m_taskRunner;
+	}
+	
+	public static void setTaskRunner(TaskRunner taskRunner) {
+		m_taskRunner = taskRunner;
+	}
+	
+	public static AllocationTracker getAllocationTracker() {
+		return m_allocations;
+	}
+	
+	public static SimulationRunner getSimulationRunner() {
+		return m_simulationRunner;
+	}
+	
+	// Set by the platform launcher before the application starts, used when simulationThread is on
+	public static void setSimulationRunner(SimulationRunner simulationRunner) {
+		m_simulationRunner = simulationRunner;
+	}
+	
+	// Set by the platform launcher before the application starts, only JVM platforms have one
+	public static void setAllocationCounter(AllocationCounter allocationCounter) {
+		m_allocationCounter = allocationCounter;
+	}
 }
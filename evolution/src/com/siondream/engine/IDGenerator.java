@@ -1,37 +1,84 @@
 package com.siondream.engine;
 
 import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Map.Entry;
 
 public class IDGenerator {
+	private static final Object m_lock = new Object();
 	private static int m_next = 1;
 	private static HashMap<String, Integer> m_ids = new HashMap<String, Integer>();
-	
+
+	// Reverse index, m_strings[id] is the string that generated id
+	private static volatile String[] m_strings = new String[256];
+
+	// Read only copy of m_ids published by freeze(), looked up without locking
+	private static volatile HashMap<String, Integer> m_frozen = null;
+
 	public static int getID(String string) {
-		// Try to fetch ID
-		Integer id = m_ids.get(string);
-		
-		// If it's the first time we try to get it, generate it
-		if (id == null) {
-			id = m_next;
-			m_ids.put(string, m_next++);
+		// Lock free path once the table has been frozen
+		HashMap<String, Integer> frozen = m_frozen;
+
+		if (frozen != null) {
+			Integer id = frozen.get(string);
+
+			if (id != null) {
+				return id;
+			}
 		}
 
-		return id;
+		synchronized (m_lock) {
+			// Try to fetch ID
+			Integer id = m_ids.get(string);
+
+			// If it's the first time we try to get it, generate it
+			if (id == null) {
+				id = m_next++;
+				m_ids.put(string, id);
+				addString(id, string);
+
+				// Strings interned after freezing are published with a new snapshot
+				if (m_frozen != null) {
+					m_frozen = new HashMap<String, Integer>(m_ids);
+				}
+			}
+
+			return id;
+		}
 	}
-	
+
 	public static String getString(int id) {
-		Iterator<Entry<String, Integer>> it = m_ids.entrySet().iterator();
-		
-		while (it.hasNext()) {
-			Entry<String, Integer> entry = it.next();
-			
-			if (entry.getValue() == id) {
-				return entry.getKey();
-			}
+		String[] strings = m_strings;
+		return (id > 0 && id < strings.length)? strings[id] : null;
+	}
+
+	public static int getCount() {
+		synchronized (m_lock) {
+			return m_next - 1;
 		}
-		
-		return null;
+	}
+
+	// Call once startup has interned its strings so lookups stop taking the lock
+	public static void freeze() {
+		synchronized (m_lock) {
+			m_frozen = new HashMap<String, Integer>(m_ids);
+		}
+	}
+
+	public static boolean isFrozen() {
+		return m_frozen != null;
+	}
+
+	private static void addString(int id, String string) {
+		String[] strings = m_strings;
+
+		if (id >= strings.length) {
+			String[] grown = new String[Math.max(id + 1, strings.length * 2)];
+			System.arraycopy(strings, 0, grown, 0, strings.length);
+			strings = grown;
+		}
+
+		strings[id] = string;
+
+		// Volatile write publishes the new slot to lock free readers
+		m_strings = strings;
 	}
 }
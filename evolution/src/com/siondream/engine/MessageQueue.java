@@ -0,0 +1,198 @@
+package com.siondream.engine;
+
+import com.badlogic.gdx.utils.Logger;
+
+public class MessageQueue {
+
+	private static Logger m_logger = Game.getLogger();
+
+	// Ring buffer stored as parallel arrays
+	private Entity[] m_receivers;
+	private Component[] m_senders;
+	private int[] m_types;
+	private Object[] m_data;
+	private int[] m_ints;
+	private float[] m_floats;
+	private boolean[] m_typed;
+	private int m_head = 0;
+	private int m_size = 0;
+
+	// Throughput counters for the last flush and since creation
+	private int m_posted = 0;
+	private int m_coalesced = 0;
+	private int m_delivered = 0;
+	private long m_totalPosted = 0;
+	private long m_totalCoalesced = 0;
+	private long m_totalDelivered = 0;
+
+	// Typed messages are delivered with this payload, refilled for each message
+	private Payload m_payload = new Payload();
+
+	public MessageQueue(int capacity) {
+		allocate(Math.max(capacity, 16));
+
+		m_logger.info("MessageQueue: creating message queue with capacity " + m_types.length);
+	}
+
+	public void post(Entity receiver, Component sender, int type, Object data) {
+		if (m_size == m_types.length) {
+			grow();
+		}
+
+		int tail = (m_head + m_size) % m_types.length;
+		m_receivers[tail] = receiver;
+		m_senders[tail] = sender;
+		m_types[tail] = type;
+		m_data[tail] = data;
+		m_typed[tail] = false;
+		++m_size;
+		++m_posted;
+	}
+
+	// Primitive arguments are copied into the queue, nothing gets boxed
+	public void post(Entity receiver, Component sender, int type, int intValue, float floatValue) {
+		if (m_size == m_types.length) {
+			grow();
+		}
+
+		int tail = (m_head + m_size) % m_types.length;
+		m_receivers[tail] = receiver;
+		m_senders[tail] = sender;
+		m_types[tail] = type;
+		m_data[tail] = null;
+		m_ints[tail] = intValue;
+		m_floats[tail] = floatValue;
+		m_typed[tail] = true;
+		++m_size;
+		++m_posted;
+	}
+
+	// Called when a message is dropped because an identical one is already queued
+	public void coalesce() {
+		++m_coalesced;
+	}
+
+	// Deliver every message queued before the flush, later ones wait for the next frame
+	public void flush() {
+		int count = m_size;
+
+		m_totalPosted += m_posted;
+		m_totalCoalesced += m_coalesced;
+		m_posted = 0;
+		m_coalesced = 0;
+		m_delivered = 0;
+
+		for (int i = 0; i < count; ++i) {
+			Entity receiver = m_receivers[m_head];
+			Component sender = m_senders[m_head];
+			int type = m_types[m_head];
+			Object data = m_typed[m_head]? m_payload.set(m_ints[m_head], m_floats[m_head]) : m_data[m_head];
+
+			m_receivers[m_head] = null;
+			m_senders[m_head] = null;
+			m_data[m_head] = null;
+			m_head = (m_head + 1) % m_types.length;
+			--m_size;
+
+			// Receivers freed after posting are cancelled and left as null
+			if (receiver != null) {
+				receiver.deliver(sender, type, data);
+				++m_delivered;
+			}
+		}
+
+		m_totalDelivered += m_delivered;
+	}
+
+	// Drop queued messages for an entity that is about to be reused
+	public void cancel(Entity entity) {
+		for (int i = 0; i < m_size; ++i) {
+			int index = (m_head + i) % m_types.length;
+
+			if (m_receivers[index] == entity) {
+				m_receivers[index] = null;
+				m_senders[index] = null;
+				m_data[index] = null;
+			}
+		}
+	}
+
+	public void clear() {
+		while (m_size > 0) {
+			m_receivers[m_head] = null;
+			m_senders[m_head] = null;
+			m_data[m_head] = null;
+			m_head = (m_head + 1) % m_types.length;
+			--m_size;
+		}
+
+		m_head = 0;
+	}
+
+	public int size() {
+		return m_size;
+	}
+
+	public int getPosted() {
+		return m_posted;
+	}
+
+	public int getCoalesced() {
+		return m_coalesced;
+	}
+
+	public int getDelivered() {
+		return m_delivered;
+	}
+
+	public long getTotalPosted() {
+		return m_totalPosted + m_posted;
+	}
+
+	public long getTotalCoalesced() {
+		return m_totalCoalesced + m_coalesced;
+	}
+
+	public long getTotalDelivered() {
+		return m_totalDelivered;
+	}
+
+	private void allocate(int capacity) {
+		m_receivers = new Entity[capacity];
+		m_senders = new Component[capacity];
+		m_types = new int[capacity];
+		m_data = new Object[capacity];
+		m_ints = new int[capacity];
+		m_floats = new float[capacity];
+		m_typed = new boolean[capacity];
+	}
+
+	private void grow() {
+		Entity[] receivers = m_receivers;
+		Component[] senders = m_senders;
+		int[] types = m_types;
+		Object[] data = m_data;
+		int[] ints = m_ints;
+		float[] floats = m_floats;
+		boolean[] typed = m_typed;
+		int capacity = types.length;
+
+		allocate(capacity * 2);
+
+		// Unroll the ring so the oldest message ends up at index 0
+		for (int i = 0; i < m_size; ++i) {
+			int index = (m_head + i) % capacity;
+			m_receivers[i] = receivers[index];
+			m_senders[i] = senders[index];
+			m_types[i] = types[index];
+			m_data[i] = data[index];
+			m_ints[i] = ints[index];
+			m_floats[i] = floats[index];
+			m_typed[i] = typed[index];
+		}
+
+		m_head = 0;
+
+		m_logger.info("MessageQueue: growing to " + m_types.length + " messages");
+	}
+}
@@ -0,0 +1,212 @@
+package com.siondream.engine;
+
+import java.util.Comparator;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.Logger;
+
+// Message traffic per type, sender and receiver, flags types that flood a single frame
+public class MessageStats {
+
+	public static class Counter {
+		int key;
+		int frame;
+		int total;
+		int peak;
+		boolean flooded;
+
+		Counter(int key) {
+			this.key = key;
+		}
+
+		// Message type, sender component type or receiver entity type, 0 for no sender
+		public int getKey() {
+			return key;
+		}
+
+		public int getFrame() {
+			return frame;
+		}
+
+		public int getTotal() {
+			return total;
+		}
+
+		// Highest count in a single frame
+		public int getPeak() {
+			return peak;
+		}
+
+		public boolean isFlooded() {
+			return flooded;
+		}
+
+		public String getName() {
+			return key != 0? IDGenerator.getString(key) : "none";
+		}
+	}
+
+	private static Logger m_logger = Game.getLogger();
+	private static Comparator<Counter> m_byTotal = new Comparator<Counter>() {
+		@Override
+		public int compare(Counter a, Counter b) {
+			return b.total - a.total;
+		}
+	};
+
+	private boolean m_enabled;
+	private int m_floodThreshold;
+	private float m_logInterval;
+	private float m_logTime = 0.0f;
+	private int m_frames = 0;
+	private IntMap<Counter> m_types = new IntMap<Counter>();
+	private IntMap<Counter> m_senders = new IntMap<Counter>();
+	private IntMap<Counter> m_receivers = new IntMap<Counter>();
+	private Array<Counter> m_sorted = new Array<Counter>();
+
+	public MessageStats() {
+		this(Game.getSettings().getBoolean("messageStats", false),
+			 Game.getSettings().getInt("messageFloodThreshold", 100),
+			 Game.getSettings().getFloat("messageStatsInterval", 5.0f));
+	}
+
+	// Totals cover the frames since the last dump, a log interval of 0 disables the dump
+	public MessageStats(boolean enabled, int floodThreshold, float logInterval) {
+		m_enabled = enabled;
+		m_floodThreshold = floodThreshold;
+		m_logInterval = logInterval;
+	}
+
+	public boolean isEnabled() {
+		return m_enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		m_enabled = enabled;
+	}
+
+	public int getFloodThreshold() {
+		return m_floodThreshold;
+	}
+
+	public void setFloodThreshold(int floodThreshold) {
+		m_floodThreshold = floodThreshold;
+	}
+
+	public int getFrameCount(int type) {
+		Counter counter = m_types.get(type);
+		return counter != null? counter.frame : 0;
+	}
+
+	public int getTotalCount(int type) {
+		Counter counter = m_types.get(type);
+		return counter != null? counter.total : 0;
+	}
+
+	public IntMap<Counter> getTypes() {
+		return m_types;
+	}
+
+	// Fills top with the count busiest counters, highest total first
+	public void getTopSenders(int count, Array<Counter> top) {
+		getTop(m_senders, count, top);
+	}
+
+	public void getTopReceivers(int count, Array<Counter> top) {
+		getTop(m_receivers, count, top);
+	}
+
+	void record(Component sender, Entity receiver, int type) {
+		++get(m_types, type).frame;
+		++get(m_senders, sender != null? sender.getType() : 0).frame;
+		++get(m_receivers, receiver.getType()).frame;
+	}
+
+	void endFrame(float deltaT) {
+		++m_frames;
+
+		for (Counter counter : m_types.values()) {
+			// Reported once per dump so a flood does not flood the log as well
+			if (counter.frame > m_floodThreshold && !counter.flooded) {
+				counter.flooded = true;
+				m_logger.info("MessageStats: flood of " + counter.getName() + ", " + counter.frame + " messages in one frame");
+			}
+		}
+
+		close(m_types);
+
+		close(m_senders);
+		close(m_receivers);
+
+		if (m_logInterval > 0.0f) {
+			m_logTime += deltaT;
+
+			if (m_logTime >= m_logInterval) {
+				log();
+				clear();
+			}
+		}
+	}
+
+	public void log() {
+		m_logger.info("MessageStats: traffic over " + m_frames + " frames");
+
+		getTop(m_types, m_types.size, m_sorted);
+		logCounters("type", m_sorted);
+
+		getTopSenders(5, m_sorted);
+		logCounters("sender", m_sorted);
+
+		getTopReceivers(5, m_sorted);
+		logCounters("receiver", m_sorted);
+
+		m_sorted.clear();
+	}
+
+	public void clear() {
+		m_types.clear();
+		m_senders.clear();
+		m_receivers.clear();
+		m_frames = 0;
+		m_logTime = 0.0f;
+	}
+
+	private void logCounters(String kind, Array<Counter> counters) {
+		for (int i = 0; i < counters.size; ++i) {
+			Counter counter = counters.get(i);
+			m_logger.info("MessageStats: " + kind + " " + counter.getName() + " " + counter.total +
+						  " (" + ((float)counter.total / Math.max(m_frames, 1)) + " per frame, peak " + counter.peak + ")");
+		}
+	}
+
+	private void getTop(IntMap<Counter> counters, int count, Array<Counter> top) {
+		top.clear();
+
+		for (Counter counter : counters.values()) {
+			top.add(counter);
+		}
+
+		top.sort(m_byTotal);
+		top.truncate(Math.min(count, top.size));
+	}
+
+	private void close(IntMap<Counter> counters) {
+		for (Counter counter : counters.values()) {
+			counter.total += counter.frame;
+			counter.peak = Math.max(counter.peak, counter.frame);
+			counter.frame = 0;
+		}
+	}
+
+	private Counter get(IntMap<Counter> counters, int key) {
+		Counter counter = counters.get(key);
+
+		if (counter == null) {
+			counter = new Counter(key);
+			counters.put(key, counter);
+		}
+
+		return counter;
+	}
+}
@@ -0,0 +1,22 @@
+package com.siondream.engine;
+
+// Primitive message arguments, only valid while onMessage runs so receivers copy what they need
+public class Payload {
+
+	private int m_int = 0;
+	private float m_float = 0.0f;
+
+	public int getInt() {
+		return m_int;
+	}
+
+	public float getFloat() {
+		return m_float;
+	}
+
+	public Payload set(int intValue, float floatValue) {
+		m_int = intValue;
+		m_float = floatValue;
+		return this;
+	}
+}
@@ -2,7 +2,6 @@ package com.siondream.engine;
 
 
 import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.physics.box2d.Body;
 import com.badlogic.gdx.physics.box2d.Filter;
 import com.badlogic.gdx.physics.box2d.Fixture;
@@ -21,14 +20,28 @@ public class PhysicsComponent extends Component {
 	private Body m_body = null;
 	private Boolean m_physics = false;
 	
+	// Entity transform version the body was last synced with
+	private int m_syncedVersion = -1;
+	
+	public PhysicsComponent() {
+		super("PhysicsComponent", 4);
+	}
+	
 	public PhysicsComponent(Entity entity, String file) {
-		super(entity, "PhysicsComponent", 4);
+		this();
 		
+		setFile(file);
+		attach(entity);
+	}
+	
+	public void setFile(String file) {
 		m_file = file;
+	}
+	
+	@Override
+	protected void onAttach() {
 		Game.getAssetManager().load(m_file, PhysicsData.class);
 		
-		m_entity.addListener(Entity.EntityMoved, this);
-		m_entity.addListener(Entity.EntityRotated, this);
 		m_entity.addListener(EnablePhysics, this);
 		m_entity.addListener(DisablePhysics, this);
 	}
@@ -41,9 +54,9 @@ public class PhysicsComponent extends Component {
 		}
 		
 		Game.getAssetManager().unload(m_file);
+		m_file = null;
+		m_syncedVersion = -1;
 		
-		m_entity.removeListener(Entity.EntityMoved, this);
-		m_entity.removeListener(Entity.EntityRotated, this);
 		m_entity.removeListener(EnablePhysics, this);
 		m_entity.removeListener(DisablePhysics, this);
 		
@@ -59,53 +72,52 @@ public class PhysicsComponent extends Component {
 		m_body.setUserData(m_entity);
 		
 		Array<FixtureDef> fixtureDefs = data.getFixtureDefs();
-		Array<Integer> fixtureIds = data.getFixtureIds();
+		Array<FixtureTag> fixtureTags = data.getFixtureTags();
 		Array<Filter> filters = data.getFilters();
 		
 		for (int i = 0; i < fixtureDefs.size && i < filters.size; ++i) {
 			Fixture fixture = m_body.createFixture(fixtureDefs.get(i));
-			fixture.setUserData(fixtureIds.get(i));
+			fixture.setUserData(fixtureTags.get(i));
 			//fixture.setFilterData(filters.get(i));
 		}
 	}
 	
 	@Override
 	public void update(float deltaT) {
-		
-		if (m_type == IDGenerator.getID("item")) {
-			m_logger.error("Physis: Updating rock!");
+		if (m_body == null) {
+			return;
 		}
 		
 		// Set position and rotation on the entity
-		if (m_body != null && m_body.isActive()) {
+		if (m_body.isActive()) {
 			Vector2 bodyPos = m_body.getPosition();
 			m_entity.setPosition(bodyPos.x,
 								 bodyPos.y,
-								 m_entity.getPosition().z);
+								 m_entity.getZ());
 			m_entity.setRotation(m_body.getAngle());
+			m_syncedVersion = m_entity.getTransformVersion();
+		}
+		// Inactive bodies follow the entity, but only when it has moved
+		else if (m_entity.getTransformVersion() != m_syncedVersion) {
+			syncBody();
 		}
 	}
 	
 	@Override
 	public void reset() {
 		if (m_body != null) {
+			// Pooled bodies must not keep the velocity of their previous use
+			m_body.setLinearVelocity(0.0f, 0.0f);
+			m_body.setAngularVelocity(0.0f);
 			m_body.setActive(false);
 		}
 	}
 	
 	@Override
 	public void onMessage(Component sender, int type, Object data) {
-		if (m_entity != null && m_entity.getType() == IDGenerator.getID("item")) {
-			m_logger.error(toString() + " event of type " + IDGenerator.getString(type));
-		}
-		
-		if (type == Entity.EntityMoved || type == Entity.EntityRotated) {
-			if (m_body != null && !m_body.isActive()) {
-				Vector3 entityPos = m_entity.getPosition();
-				m_body.setTransform(entityPos.x, entityPos.y, m_entity.getRotation());
-			}
-		}
-		else if (type == EnablePhysics && m_body != null) {
+		if (type == EnablePhysics && m_body != null) {
+			// Start from the entity transform, it may have moved since the last update
+			syncBody();
 			m_body.setActive(true);
 		}
 		else if (type == DisablePhysics && m_body != null) {
@@ -116,12 +128,12 @@ public class PhysicsComponent extends Component {
 		}
 	}
 
-	@Override
-	public Array<Integer> getDependencies() {
-		return new Array<Integer>();
-	}
-
 	public Body getBody() {
 		return m_body;
 	}
+	
+	private void syncBody() {
+		m_body.setTransform(m_entity.getX(), m_entity.getY(), m_entity.getRotation());
+		m_syncedVersion = m_entity.getTransformVersion();
+	}
 }
@@ -21,7 +21,7 @@ public class PhysicsData {
 	private MassData m_massData = new MassData();
 	private Array<FixtureDef> m_fixtureDefs = new Array<FixtureDef>();
 	private Array<Filter> m_filters = new Array<Filter>();
-	private Array<Integer> m_fixtureIds = new Array<Integer>();
+	private Array<FixtureTag> m_fixtureTags = new Array<FixtureTag>();
 	
 	public PhysicsData(String file) {
 		m_file = file;
@@ -39,8 +39,8 @@ public class PhysicsData {
 		return m_fixtureDefs;
 	}
 	
-	public Array<Integer> getFixtureIds() {
-		return m_fixtureIds;
+	public Array<FixtureTag> getFixtureTags() {
+		return m_fixtureTags;
 	}
 	
 	public Array<Filter> getFilters() {
@@ -109,7 +109,7 @@ public class PhysicsData {
 			fixtureDef.shape = loadShape(fixtureElement);
 			
 			m_filters.add(loadFilter(fixtureElement));
-			m_fixtureIds.add(IDGenerator.getID(fixtureElement.get("id", "")));
+			m_fixtureTags.add(FixtureTag.get(IDGenerator.getID(fixtureElement.get("id", ""))));
 			m_fixtureDefs.add(fixtureDef);
 		}
 	}
@@ -0,0 +1,76 @@
+package com.siondream.engine;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.XmlReader.Element;
+
+public class Prefab {
+
+	private String m_name;
+	private int m_id;
+	private int m_type;
+	private int m_state;
+	private int m_poolSize;
+	private Array<Element> m_components = new Array<Element>();
+	private boolean m_validated = false;
+
+	// Instances that have been despawned and wait to be reused
+	private Array<Entity> m_instances;
+
+	public Prefab(String name, int type, int state, int poolSize) {
+		m_name = name;
+		m_id = IDGenerator.getID(name);
+		m_type = type;
+		m_state = state;
+		m_poolSize = poolSize;
+		m_instances = new Array<Entity>(false, Math.max(poolSize, 1));
+	}
+
+	public String getName() {
+		return m_name;
+	}
+
+	public int getID() {
+		return m_id;
+	}
+
+	public int getType() {
+		return m_type;
+	}
+
+	public int getState() {
+		return m_state;
+	}
+
+	public int getPoolSize() {
+		return m_poolSize;
+	}
+
+	public Array<Element> getComponents() {
+		return m_components;
+	}
+
+	public int getNumInstances() {
+		return m_instances.size;
+	}
+
+	void addComponent(Element definition) {
+		m_components.add(definition);
+	}
+
+	boolean isValidated() {
+		return m_validated;
+	}
+
+	void setValidated(boolean validated) {
+		m_validated = validated;
+	}
+
+	Array<Entity> getInstances() {
+		return m_instances;
+	}
+
+	@Override
+	public String toString() {
+		return "Prefab (" + m_name + ")";
+	}
+}
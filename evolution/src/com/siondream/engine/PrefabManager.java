@@ -0,0 +1,223 @@
+package com.siondream.engine;
+
+import java.util.HashMap;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.Logger;
+import com.badlogic.gdx.utils.XmlReader;
+import com.badlogic.gdx.utils.XmlReader.Element;
+
+public class PrefabManager {
+
+	private static Logger m_logger = Game.getLogger();
+
+	private EntityManager m_entityManager;
+	private IntMap<Prefab> m_prefabs = new IntMap<Prefab>();
+	private HashMap<String, ComponentFactory> m_factories = new HashMap<String, ComponentFactory>();
+
+	public PrefabManager(EntityManager entityManager) {
+		m_entityManager = entityManager;
+
+		// Engine component pools
+		int poolSize = Game.getSettings().getInt("componentPoolSize", 50);
+
+		ComponentPools.register(AnimationComponent.class, new ComponentPool<AnimationComponent>(poolSize) {
+			@Override
+			protected AnimationComponent create() {
+				return new AnimationComponent();
+			}
+		});
+
+		ComponentPools.register(PhysicsComponent.class, new ComponentPool<PhysicsComponent>(poolSize) {
+			@Override
+			protected PhysicsComponent create() {
+				return new PhysicsComponent();
+			}
+		});
+
+		// Engine components
+		registerFactory("AnimationComponent", new ComponentFactory() {
+			@Override
+			public Component create(Entity entity, Element definition) {
+				AnimationComponent component = ComponentPools.obtain(AnimationComponent.class);
+				component.setFile(definition.getAttribute("file"));
+				component.attach(entity);
+				return component;
+			}
+		});
+
+		registerFactory("PhysicsComponent", new ComponentFactory() {
+			@Override
+			public Component create(Entity entity, Element definition) {
+				PhysicsComponent component = ComponentPools.obtain(PhysicsComponent.class);
+				component.setFile(definition.getAttribute("file"));
+				component.attach(entity);
+				return component;
+			}
+		});
+	}
+
+	public void registerFactory(String componentName, ComponentFactory factory) {
+		m_factories.put(componentName, factory);
+	}
+
+	public Prefab get(int id) {
+		return m_prefabs.get(id);
+	}
+
+	public Prefab get(String name) {
+		return m_prefabs.get(IDGenerator.getID(name));
+	}
+
+	public void load(String file) {
+		m_logger.info("PrefabManager: loading prefabs from file " + file);
+
+		try {
+			// Parse xml document
+			XmlReader reader = new XmlReader();
+			Element root = reader.parse(Gdx.files.internal(file));
+
+			Array<Element> prefabNodes = root.getChildrenByName("prefab");
+
+			for (int i = 0; i < prefabNodes.size; ++i) {
+				Element prefabNode = prefabNodes.get(i);
+				Prefab prefab = new Prefab(prefabNode.getAttribute("name"),
+										   IDGenerator.getID(prefabNode.get("type", "empty")),
+										   IDGenerator.getID(prefabNode.get("state", "idle")),
+										   prefabNode.getInt("pool", 0));
+
+				Array<Element> componentNodes = prefabNode.getChildrenByName("component");
+
+				for (int j = 0; j < componentNodes.size; ++j) {
+					Element componentNode = componentNodes.get(j);
+
+					if (m_factories.get(componentNode.getAttribute("name")) == null) {
+						m_logger.error("PrefabManager: no factory for " + componentNode.getAttribute("name") + " in " + prefab);
+						continue;
+					}
+
+					prefab.addComponent(componentNode);
+				}
+
+				m_prefabs.put(prefab.getID(), prefab);
+				m_logger.info("PrefabManager: loaded " + prefab);
+			}
+		}
+		catch (Exception e) {
+			m_logger.error("PrefabManager: error loading file " + file + " " + e.getMessage());
+		}
+	}
+
+	// Builds every prefab up to its pool size, assets have to be loaded by now
+	public void prepare() {
+		for (Prefab prefab : m_prefabs.values()) {
+			prepare(prefab.getID(), prefab.getPoolSize());
+		}
+	}
+
+	public void prepare(int prefabID, int count) {
+		Prefab prefab = m_prefabs.get(prefabID);
+
+		if (prefab == null) {
+			m_logger.error("PrefabManager: unknown prefab " + IDGenerator.getString(prefabID));
+			return;
+		}
+
+		while (prefab.getNumInstances() < count) {
+			Entity entity = build(prefab);
+
+			if (entity == null) {
+				break;
+			}
+
+			m_entityManager.free(entity);
+		}
+
+		// Components queue loads for assets that are already in memory, settle them now
+		Game.getAssetManager().finishLoading();
+	}
+
+	public Entity spawn(int prefabID, float x, float y, float z) {
+		Prefab prefab = m_prefabs.get(prefabID);
+
+		if (prefab == null) {
+			m_logger.error("PrefabManager: unknown prefab " + IDGenerator.getString(prefabID));
+			return null;
+		}
+
+		Array<Entity> instances = prefab.getInstances();
+		Entity entity = null;
+
+		if (instances.size > 0) {
+			entity = instances.pop();
+			m_entityManager.wake(entity);
+		}
+		else {
+			m_logger.info("PrefabManager: " + prefab + " pool exhausted, building new instance");
+			entity = build(prefab);
+
+			if (entity == null) {
+				return null;
+			}
+		}
+
+		entity.onMessage(null, PhysicsComponent.DisablePhysics, null);
+		entity.setPosition(x, y, z);
+		entity.skipInterpolation();
+		entity.setState(prefab.getState());
+		entity.reset();
+		entity.onMessage(null, PhysicsComponent.EnablePhysics, null);
+
+		return entity;
+	}
+
+	// Called by the entity manager when a prefab instance is freed
+	void release(Entity entity) {
+		entity.getPrefab().getInstances().add(entity);
+	}
+
+	// Dispose every instance waiting in the pools
+	public void clear() {
+		for (Prefab prefab : m_prefabs.values()) {
+			Array<Entity> instances = prefab.getInstances();
+
+			for (int i = 0; i < instances.size; ++i) {
+				m_entityManager.recycle(instances.get(i));
+			}
+
+			instances.clear();
+		}
+	}
+
+	private Entity build(Prefab prefab) {
+		Entity entity = m_entityManager.obtain();
+		entity.setType(prefab.getType());
+		entity.setName(prefab.getName());
+		entity.setPrefab(prefab);
+
+		Array<Element> components = prefab.getComponents();
+
+		for (int i = 0; i < components.size; ++i) {
+			Element definition = components.get(i);
+			ComponentFactory factory = m_factories.get(definition.getAttribute("name"));
+			entity.addComponent(factory.create(entity, definition));
+		}
+
+		// Dependencies only need checking the first time a prefab is built
+		entity.batch(!prefab.isValidated());
+
+		if (!entity.isBatched()) {
+			m_logger.error("PrefabManager: " + prefab + " does not meet its dependencies");
+			entity.setPrefab(null);
+			m_entityManager.free(entity);
+			return null;
+		}
+
+		prefab.setValidated(true);
+		entity.fetchAssets();
+
+		return entity;
+	}
+}
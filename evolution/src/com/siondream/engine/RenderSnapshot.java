@@ -0,0 +1,148 @@
+package com.siondream.engine;
+
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.Frustum;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.math.collision.BoundingBox;
+
+// What the GL thread draws while the simulation thread works on the next frame
+// The simulation captures into the back buffer, the GL thread draws the front one
+// Buffers are only swapped in publish, while the simulation thread is idle
+public class RenderSnapshot {
+
+	// Same layout SpriteBatch takes, so frames and transforms travel as ready made vertices
+	public static final int SpriteSize = 20;
+
+	private static class Buffer {
+		Texture[] textures;
+		float[] vertices;
+		float[] depths;
+		int size = 0;
+		float cameraX = 0.0f;
+		float cameraY = 0.0f;
+		float cameraZoom = 1.0f;
+
+		Buffer(int capacity) {
+			textures = new Texture[capacity];
+			vertices = new float[capacity * SpriteSize];
+			depths = new float[capacity];
+		}
+	}
+
+	private Buffer m_front;
+	private Buffer m_back;
+
+	// Frustum culling
+	private BoundingBox m_bbox = new BoundingBox();
+	private Vector3 m_min = new Vector3();
+	private Vector3 m_max = new Vector3();
+
+	public RenderSnapshot(int capacity) {
+		m_front = new Buffer(capacity);
+		m_back = new Buffer(capacity);
+	}
+
+	// Simulation side
+
+	public void begin() {
+		// Textures are dropped so unloaded ones are not kept alive by a stale buffer
+		for (int i = 0; i < m_back.size; ++i) {
+			m_back.textures[i] = null;
+		}
+
+		m_back.size = 0;
+	}
+
+	public void addSprite(Texture texture, float[] vertices, float depth) {
+		Buffer buffer = m_back;
+
+		if (buffer.size == buffer.textures.length) {
+			grow(buffer);
+		}
+
+		buffer.textures[buffer.size] = texture;
+		buffer.depths[buffer.size] = depth;
+		System.arraycopy(vertices, 0, buffer.vertices, buffer.size * SpriteSize, SpriteSize);
+		++buffer.size;
+	}
+
+	public void setCamera(OrthographicCamera camera) {
+		m_back.cameraX = camera.position.x;
+		m_back.cameraY = camera.position.y;
+		m_back.cameraZoom = camera.zoom;
+	}
+
+	// GL side
+
+	public void publish() {
+		Buffer buffer = m_front;
+		m_front = m_back;
+		m_back = buffer;
+	}
+
+	public int getSpriteCount() {
+		return m_front.size;
+	}
+
+	// Puts the camera where it was when the front buffer was captured, call before updating it
+	public void applyCamera(OrthographicCamera camera) {
+		camera.position.x = m_front.cameraX;
+		camera.position.y = m_front.cameraY;
+		camera.zoom = m_front.cameraZoom;
+	}
+
+	// Call inside SpriteBatch.begin/end, sprites come in the order they were captured
+	public void draw(SpriteBatch batch, Frustum frustum) {
+		Buffer buffer = m_front;
+
+		for (int i = 0; i < buffer.size; ++i) {
+			int offset = i * SpriteSize;
+
+			// This SpriteBatch takes an end index rather than a count
+			if (isVisible(buffer.vertices, offset, buffer.depths[i], frustum)) {
+				batch.draw(buffer.textures[i], buffer.vertices, offset, offset + SpriteSize);
+			}
+		}
+	}
+
+	private boolean isVisible(float[] vertices, int offset, float depth, Frustum frustum) {
+		float minX = vertices[offset];
+		float minY = vertices[offset + 1];
+		float maxX = minX;
+		float maxY = minY;
+
+		// Corners are 5 floats apart, position first
+		for (int corner = 5; corner < SpriteSize; corner += 5) {
+			float x = vertices[offset + corner];
+			float y = vertices[offset + corner + 1];
+			minX = Math.min(minX, x);
+			minY = Math.min(minY, y);
+			maxX = Math.max(maxX, x);
+			maxY = Math.max(maxY, y);
+		}
+
+		m_min.set(minX, minY, depth);
+		m_max.set(maxX, maxY, depth);
+		m_bbox.set(m_min, m_max);
+
+		return frustum.boundsInFrustum(m_bbox);
+	}
+
+	private static void grow(Buffer buffer) {
+		int capacity = Math.max(buffer.textures.length * 2, 16);
+
+		Texture[] textures = new Texture[capacity];
+		System.arraycopy(buffer.textures, 0, textures, 0, buffer.size);
+		buffer.textures = textures;
+
+		float[] vertices = new float[capacity * SpriteSize];
+		System.arraycopy(buffer.vertices, 0, vertices, 0, buffer.size * SpriteSize);
+		buffer.vertices = vertices;
+
+		float[] depths = new float[capacity];
+		System.arraycopy(buffer.depths, 0, depths, 0, buffer.size);
+		buffer.depths = depths;
+	}
+}
@@ -0,0 +1,91 @@
+package com.siondream.engine;
+
+import java.util.Arrays;
+
+// Per frame totals over the last frames, in milliseconds
+public class RollingTimings {
+
+	private float[] m_samples;
+	private float[] m_sorted;
+	private int m_count = 0;
+	private int m_next = 0;
+	private long m_frame = 0;
+	private boolean m_sortedDirty = true;
+
+	public RollingTimings(int window) {
+		m_samples = new float[Math.max(window, 1)];
+		m_sorted = new float[m_samples.length];
+	}
+
+	// Accumulates into the current frame
+	public void add(long nanos) {
+		m_frame += nanos;
+	}
+
+	// Closes the current frame as one sample
+	public void endFrame() {
+		m_samples[m_next] = m_frame / 1000000.0f;
+		m_next = (m_next + 1) % m_samples.length;
+		m_count = Math.min(m_count + 1, m_samples.length);
+		m_frame = 0;
+		m_sortedDirty = true;
+	}
+
+	public int getCount() {
+		return m_count;
+	}
+
+	public float getLast() {
+		return m_count > 0? m_samples[(m_next + m_samples.length - 1) % m_samples.length] : 0.0f;
+	}
+
+	public float getMin() {
+		return m_count > 0? sorted()[0] : 0.0f;
+	}
+
+	public float getMax() {
+		return m_count > 0? sorted()[m_count - 1] : 0.0f;
+	}
+
+	public float getAverage() {
+		float total = 0.0f;
+
+		for (int i = 0; i < m_count; ++i) {
+			total += m_samples[i];
+		}
+
+		return m_count > 0? total / m_count : 0.0f;
+	}
+
+	// Nearest rank percentile, percentile goes from 0 to 100
+	public float getPercentile(float percentile) {
+		if (m_count == 0) {
+			return 0.0f;
+		}
+
+		int rank = (int)Math.ceil(percentile / 100.0f * m_count) - 1;
+		return sorted()[Math.max(0, Math.min(rank, m_count - 1))];
+	}
+
+	public void clear() {
+		m_count = 0;
+		m_next = 0;
+		m_frame = 0;
+		m_sortedDirty = true;
+	}
+
+	@Override
+	public String toString() {
+		return "avg " + getAverage() + "ms p95 " + getPercentile(95.0f) + "ms p99 " + getPercentile(99.0f) + "ms max " + getMax() + "ms";
+	}
+
+	private float[] sorted() {
+		if (m_sortedDirty) {
+			System.arraycopy(m_samples, 0, m_sorted, 0, m_count);
+			Arrays.sort(m_sorted, 0, m_count);
+			m_sortedDirty = false;
+		}
+
+		return m_sorted;
+	}
+}
@@ -0,0 +1,18 @@
+package com.siondream.engine;
+
+import com.badlogic.gdx.utils.Array;
+
+// Default runner, also the only one available on platforms without threads
+public class SerialTaskRunner implements TaskRunner {
+
+	@Override
+	public void run(Array<Runnable> tasks) {
+		for (int i = 0; i < tasks.size; ++i) {
+			tasks.get(i).run();
+		}
+	}
+
+	@Override
+	public void dispose() {
+	}
+}
@@ -0,0 +1,12 @@
+package com.siondream.engine;
+
+import com.badlogic.gdx.utils.Disposable;
+
+// Runs the simulation next to the GL thread, only platforms with threads provide one
+public interface SimulationRunner extends Disposable {
+	// Hands the step over to the simulation thread and returns straight away
+	public void start(Runnable step);
+
+	// Blocks until the step given to start is done, whatever it threw is rethrown here
+	public void finish();
+}
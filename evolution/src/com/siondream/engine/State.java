@@ -21,6 +21,7 @@ public abstract class State implements GestureDetector.GestureListener,
 	protected static final Settings m_settings = Game.getSettings();
 	protected static final TweenManager m_tweenManager = Game.getTweenManager();
 	protected static final SpriteBatch m_batch = Game.getSpriteBatch();
+	protected static final FrameProfiler m_profiler = Game.getFrameProfiler();
 	
 	protected GestureDetector m_gestureDetector = null;
 	
@@ -101,6 +102,21 @@ public abstract class State implements GestureDetector.GestureListener,
 		
 	}
 	
+	// Drawing only, called after every state has been updated
+	public void render() {
+		
+	}
+	
+	// Copy whatever render reads from the simulation, the simulation thread is idle meanwhile
+	public void publish() {
+		
+	}
+	
+	// Only states whose update stays off GL and assets can run on the simulation thread
+	public boolean allowsSimulationThread() {
+		return false;
+	}
+	
 	
 	// Events
 	
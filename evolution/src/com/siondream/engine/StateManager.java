@@ -27,18 +27,61 @@ public class StateManager {
 	public StateManager() {}
 	
 	public void update(float deltaT) {
+		updateStates(deltaT);
+		
+		// Safely perform state operations
+		performOperations();
+	}
+	
+	// Leaves pushes and pops queued, they load and unload assets so they wait for the GL thread
+	public void updateStates(float deltaT) {
 		// Iterate over states
 		for (int i = 0; i < m_numStates; ++i) {
 			State state = m_statesStack.get(i);
 			
-			// If is active and loaded, update and render
+			// If is active and loaded, update
 			if (state.isActive() && state.isLoaded()) {
 				state.update(deltaT);
 			}
 		}
+	}
+	
+	// True when every running state can be updated away from the GL thread
+	public boolean allowsSimulationThread() {
+		if (m_pendingOperations.size > 0) {
+			return false;
+		}
+		
+		for (int i = 0; i < m_numStates; ++i) {
+			State state = m_statesStack.get(i);
+			
+			if (state.isActive() && state.isLoaded() && !state.allowsSimulationThread()) {
+				return false;
+			}
+		}
 		
-		// Safely perform state operations
-		performOperations();
+		return true;
+	}
+	
+	// GL thread, between the simulation and drawing
+	public void publish() {
+		for (int i = 0; i < m_numStates; ++i) {
+			State state = m_statesStack.get(i);
+			
+			if (state.isActive() && state.isLoaded()) {
+				state.publish();
+			}
+		}
+	}
+	
+	public void render() {
+		for (int i = 0; i < m_numStates; ++i) {
+			State state = m_statesStack.get(i);
+			
+			if (state.isActive() && state.isLoaded()) {
+				state.render();
+			}
+		}
 	}
 	
 	public void pushState(String stateName) {
@@ -96,7 +139,7 @@ public class StateManager {
 		}
 	}
 	
-	private void performOperations() {
+	public void performOperations() {
 		int numOperations = m_pendingOperations.size;
 		
 		// Iterate over pending operations
@@ -0,0 +1,174 @@
+package com.siondream.engine;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Logger;
+
+public class SystemScheduler {
+
+	private static Logger m_logger = Game.getLogger();
+
+	private EntityManager m_entityManager;
+	private TaskRunner m_runner = new SerialTaskRunner();
+	private int m_chunkSize;
+
+	// Systems in registration order and grouped in phases of non conflicting systems
+	private Array<EntitySystem> m_systems = new Array<EntitySystem>();
+	private Array<Array<EntitySystem>> m_phases = new Array<Array<EntitySystem>>();
+	private boolean m_dirty = false;
+
+	// Chunks are reused every frame
+	private Array<Runnable> m_tasks = new Array<Runnable>();
+	private Array<Chunk> m_chunks = new Array<Chunk>();
+	private int m_usedChunks = 0;
+
+	private static class Chunk implements Runnable {
+		EntitySystem system;
+		int begin;
+		int end;
+		float deltaT;
+
+		@Override
+		public void run() {
+			Array<Entity> entities = system.m_entities;
+
+			for (int i = begin; i < end; ++i) {
+				system.process(entities.get(i), deltaT);
+			}
+		}
+	}
+
+	public SystemScheduler(EntityManager entityManager, int chunkSize) {
+		m_entityManager = entityManager;
+		m_chunkSize = Math.max(chunkSize, 1);
+	}
+
+	public void setTaskRunner(TaskRunner runner) {
+		m_runner = runner != null? runner : new SerialTaskRunner();
+	}
+
+	public TaskRunner getTaskRunner() {
+		return m_runner;
+	}
+
+	public int getNumPhases() {
+		if (m_dirty) {
+			buildPhases();
+		}
+
+		return m_phases.size;
+	}
+
+	// Systems run in the order they are added unless they can share a phase
+	public void add(EntitySystem system) {
+		m_systems.add(system);
+		m_dirty = true;
+	}
+
+	public void remove(EntitySystem system) {
+		m_systems.removeValue(system, true);
+		m_dirty = true;
+	}
+
+	public void update(float deltaT) {
+		if (m_systems.size == 0) {
+			return;
+		}
+
+		if (m_dirty) {
+			buildPhases();
+		}
+
+		for (int i = 0; i < m_phases.size; ++i) {
+			Array<EntitySystem> phase = m_phases.get(i);
+
+			m_tasks.clear();
+			m_usedChunks = 0;
+
+			// Gather entities and split them in chunks on the main thread
+			for (int j = 0; j < phase.size; ++j) {
+				EntitySystem system = phase.get(j);
+
+				if (!system.isEnabled()) {
+					continue;
+				}
+
+				system.m_entities.clear();
+				m_entityManager.query(system.getRequired(), system.m_entities);
+				system.begin(deltaT);
+
+				int size = system.m_entities.size;
+				int chunkSize = system.isParallel()? m_chunkSize : size;
+
+				for (int begin = 0; begin < size; begin += chunkSize) {
+					Chunk chunk = obtainChunk();
+					chunk.system = system;
+					chunk.begin = begin;
+					chunk.end = Math.min(begin + chunkSize, size);
+					chunk.deltaT = deltaT;
+					m_tasks.add(chunk);
+				}
+			}
+
+			m_runner.run(m_tasks);
+
+			for (int j = 0; j < phase.size; ++j) {
+				EntitySystem system = phase.get(j);
+
+				if (system.isEnabled()) {
+					system.end(deltaT);
+					system.m_entities.clear();
+				}
+			}
+		}
+
+		m_tasks.clear();
+	}
+
+	public void clear() {
+		m_systems.clear();
+		m_phases.clear();
+		m_dirty = false;
+	}
+
+	private Chunk obtainChunk() {
+		if (m_usedChunks == m_chunks.size) {
+			m_chunks.add(new Chunk());
+		}
+
+		return m_chunks.get(m_usedChunks++);
+	}
+
+	private void buildPhases() {
+		m_phases.clear();
+
+		// A system goes in the phase after the last one holding a system it conflicts with
+		for (int i = 0; i < m_systems.size; ++i) {
+			EntitySystem system = m_systems.get(i);
+			int phaseIndex = 0;
+
+			for (int j = m_phases.size - 1; j >= 0; --j) {
+				Array<EntitySystem> phase = m_phases.get(j);
+				boolean conflict = false;
+
+				for (int k = 0; k < phase.size && !conflict; ++k) {
+					conflict = system.conflictsWith(phase.get(k));
+				}
+
+				if (conflict) {
+					phaseIndex = j + 1;
+					break;
+				}
+			}
+
+			if (phaseIndex == m_phases.size) {
+				m_phases.add(new Array<EntitySystem>());
+			}
+
+			m_phases.get(phaseIndex).add(system);
+		}
+
+		m_dirty = false;
+
+		m_logger.info("SystemScheduler: " + m_systems.size + " systems in " + m_phases.size + " phases");
+	}
+}
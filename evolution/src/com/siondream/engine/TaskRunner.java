@@ -0,0 +1,9 @@
+package com.siondream.engine;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+
+public interface TaskRunner extends Disposable {
+	// Runs every task and returns once all of them are done
+	public void run(Array<Runnable> tasks);
+}
@@ -0,0 +1,448 @@
+package com.siondream.engine;
+
+import com.badlogic.gdx.utils.IntArray;
+
+// Entity transforms in parallel arrays indexed by entity slot (its id)
+public class TransformStore {
+
+	private float[] m_x;
+	private float[] m_y;
+	private float[] m_z;
+	private float[] m_rotations;
+	private float[] m_scales;
+
+	// Transforms at the start of the last simulation step, rendering blends towards the current ones
+	private float[] m_previousX;
+	private float[] m_previousY;
+	private float[] m_previousRotations;
+	private float[] m_previousScales;
+	private float m_alpha = 1.0f;
+	private int[] m_versions;
+
+	// Hierarchy as intrusive lists, slot 0 is never used by an entity so it means none
+	private int[] m_parents;
+	private int[] m_firstChildren;
+	private int[] m_nextSiblings;
+	private float[] m_localX;
+	private float[] m_localY;
+	private float[] m_localZ;
+	private float[] m_localRotations;
+	private float[] m_localScales;
+
+	// Dirty state, m_changed is only tracked for entities with children
+	private boolean[] m_changed;
+	private boolean[] m_dirtyBelow;
+	private boolean[] m_listed;
+	private IntArray m_roots = new IntArray();
+	private boolean m_propagating = false;
+
+	public TransformStore(int capacity) {
+		allocate(capacity + 1);
+	}
+
+	public int getCapacity() {
+		return m_x.length;
+	}
+
+	public float getX(int slot) {
+		return m_x[slot];
+	}
+
+	public float getY(int slot) {
+		return m_y[slot];
+	}
+
+	public float getZ(int slot) {
+		return m_z[slot];
+	}
+
+	public float getRotation(int slot) {
+		return m_rotations[slot];
+	}
+
+	public float getScale(int slot) {
+		return m_scales[slot];
+	}
+
+	public int getVersion(int slot) {
+		return m_versions[slot];
+	}
+
+	// Setters return whether anything changed, the slot version is bumped if so
+	public boolean setPosition(int slot, float x, float y, float z) {
+		if (m_x[slot] == x && m_y[slot] == y && m_z[slot] == z) {
+			return false;
+		}
+
+		m_x[slot] = x;
+		m_y[slot] = y;
+		m_z[slot] = z;
+		++m_versions[slot];
+		markChanged(slot);
+
+		return true;
+	}
+
+	public boolean setRotation(int slot, float rotation) {
+		if (m_rotations[slot] == rotation) {
+			return false;
+		}
+
+		m_rotations[slot] = rotation;
+		++m_versions[slot];
+		markChanged(slot);
+
+		return true;
+	}
+
+	public boolean setScale(int slot, float scale) {
+		if (m_scales[slot] == scale) {
+			return false;
+		}
+
+		m_scales[slot] = scale;
+		++m_versions[slot];
+		markChanged(slot);
+
+		return true;
+	}
+
+	// Identity transform, the version still moves forward so cached data gets refreshed
+	public void reset(int slot) {
+		m_x[slot] = 0.0f;
+		m_y[slot] = 0.0f;
+		m_z[slot] = 0.0f;
+		m_rotations[slot] = 0.0f;
+		m_scales[slot] = 1.0f;
+		++m_versions[slot];
+		snap(slot);
+	}
+
+	// Interpolation, z is left out since it decides the render order
+
+	// Called before every simulation step
+	public void storePrevious() {
+		System.arraycopy(m_x, 0, m_previousX, 0, m_x.length);
+		System.arraycopy(m_y, 0, m_previousY, 0, m_y.length);
+		System.arraycopy(m_rotations, 0, m_previousRotations, 0, m_rotations.length);
+		System.arraycopy(m_scales, 0, m_previousScales, 0, m_scales.length);
+	}
+
+	// Makes the slot render where it is, for teleports and spawns
+	public void snap(int slot) {
+		m_previousX[slot] = m_x[slot];
+		m_previousY[slot] = m_y[slot];
+		m_previousRotations[slot] = m_rotations[slot];
+		m_previousScales[slot] = m_scales[slot];
+	}
+
+	public float getAlpha() {
+		return m_alpha;
+	}
+
+	// Fraction of a step between the last simulated state and the next one, 1 renders the current state
+	public void setAlpha(float alpha) {
+		m_alpha = alpha;
+	}
+
+	public boolean isInterpolated(int slot) {
+		return m_alpha < 1.0f && (m_previousX[slot] != m_x[slot] ||
+								  m_previousY[slot] != m_y[slot] ||
+								  m_previousRotations[slot] != m_rotations[slot] ||
+								  m_previousScales[slot] != m_scales[slot]);
+	}
+
+	public float getRenderX(int slot) {
+		return m_previousX[slot] + (m_x[slot] - m_previousX[slot]) * m_alpha;
+	}
+
+	public float getRenderY(int slot) {
+		return m_previousY[slot] + (m_y[slot] - m_previousY[slot]) * m_alpha;
+	}
+
+	// Shortest way around so wrapping at 360 does not spin the sprite
+	public float getRenderRotation(int slot) {
+		float delta = m_rotations[slot] - m_previousRotations[slot];
+
+		if (delta > 180.0f) {
+			delta -= 360.0f;
+		}
+		else if (delta < -180.0f) {
+			delta += 360.0f;
+		}
+
+		return m_previousRotations[slot] + delta * m_alpha;
+	}
+
+	public float getRenderScale(int slot) {
+		return m_previousScales[slot] + (m_scales[slot] - m_previousScales[slot]) * m_alpha;
+	}
+
+	// Hierarchy
+
+	public int getParent(int slot) {
+		return m_parents[slot];
+	}
+
+	public int getFirstChild(int slot) {
+		return m_firstChildren[slot];
+	}
+
+	public int getNextSibling(int slot) {
+		return m_nextSiblings[slot];
+	}
+
+	public float getLocalX(int slot) {
+		return m_localX[slot];
+	}
+
+	public float getLocalY(int slot) {
+		return m_localY[slot];
+	}
+
+	public float getLocalZ(int slot) {
+		return m_localZ[slot];
+	}
+
+	public float getLocalRotation(int slot) {
+		return m_localRotations[slot];
+	}
+
+	public float getLocalScale(int slot) {
+		return m_localScales[slot];
+	}
+
+	public void setLocalPosition(int slot, float x, float y, float z) {
+		m_localX[slot] = x;
+		m_localY[slot] = y;
+		m_localZ[slot] = z;
+	}
+
+	public void setLocalRotation(int slot, float rotation) {
+		m_localRotations[slot] = rotation;
+	}
+
+	public void setLocalScale(int slot, float scale) {
+		m_localScales[slot] = scale;
+	}
+
+	// True if ancestor is slot itself or one of its parents
+	public boolean isAncestor(int ancestor, int slot) {
+		for (int current = slot; current != 0; current = m_parents[current]) {
+			if (current == ancestor) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	void link(int child, int parent) {
+		unlink(child);
+
+		m_parents[child] = parent;
+		m_nextSiblings[child] = m_firstChildren[parent];
+		m_firstChildren[parent] = child;
+
+		// Roots are entities with children and no parent, the pass starts from them
+		if (m_parents[parent] == 0 && !m_listed[parent]) {
+			m_listed[parent] = true;
+			m_roots.add(parent);
+		}
+
+		// The child has to be placed by the next pass
+		m_changed[parent] = true;
+		markDirtyAbove(parent);
+	}
+
+	void unlink(int child) {
+		int parent = m_parents[child];
+
+		if (parent == 0) {
+			return;
+		}
+
+		if (m_firstChildren[parent] == child) {
+			m_firstChildren[parent] = m_nextSiblings[child];
+		}
+		else {
+			int sibling = m_firstChildren[parent];
+
+			while (m_nextSiblings[sibling] != child) {
+				sibling = m_nextSiblings[sibling];
+			}
+
+			m_nextSiblings[sibling] = m_nextSiblings[child];
+		}
+
+		m_parents[child] = 0;
+		m_nextSiblings[child] = 0;
+
+		// A detached subtree becomes a root of its own
+		if (m_firstChildren[child] != 0 && !m_listed[child]) {
+			m_listed[child] = true;
+			m_roots.add(child);
+		}
+	}
+
+	// Adds the roots that have something to recompute, forgetting the ones that stopped being roots
+	void getDirtyRoots(IntArray roots) {
+		for (int i = m_roots.size - 1; i >= 0; --i) {
+			int slot = m_roots.get(i);
+
+			if (m_parents[slot] != 0 || m_firstChildren[slot] == 0) {
+				m_listed[slot] = false;
+				m_roots.removeIndex(i);
+			}
+			else if (m_changed[slot] || m_dirtyBelow[slot]) {
+				roots.add(slot);
+			}
+		}
+	}
+
+	// True if the pass has to go into the subtree of slot
+	boolean needsVisit(int slot) {
+		return m_firstChildren[slot] != 0 && (m_changed[slot] || m_dirtyBelow[slot]);
+	}
+
+	// Returns whether the world transform of slot changed and clears its dirty state
+	boolean consumeChanged(int slot) {
+		boolean changed = m_changed[slot];
+		m_changed[slot] = false;
+		m_dirtyBelow[slot] = false;
+		return changed;
+	}
+
+	// While propagating, changes only flag the subtree being walked
+	void setPropagating(boolean propagating) {
+		m_propagating = propagating;
+	}
+
+	void clearHierarchy() {
+		for (int i = 0; i < m_parents.length; ++i) {
+			m_parents[i] = 0;
+			m_firstChildren[i] = 0;
+			m_nextSiblings[i] = 0;
+			m_changed[i] = false;
+			m_dirtyBelow[i] = false;
+			m_listed[i] = false;
+		}
+
+		m_roots.clear();
+	}
+
+	private void markChanged(int slot) {
+		if (m_firstChildren[slot] == 0) {
+			return;
+		}
+
+		m_changed[slot] = true;
+
+		if (!m_propagating) {
+			markDirtyAbove(slot);
+		}
+	}
+
+	private void markDirtyAbove(int slot) {
+		for (int parent = m_parents[slot]; parent != 0 && !m_dirtyBelow[parent]; parent = m_parents[parent]) {
+			m_dirtyBelow[parent] = true;
+		}
+	}
+
+	// Raw arrays for bulk passes, they are replaced when the store grows
+	public float[] getXs() {
+		return m_x;
+	}
+
+	public float[] getYs() {
+		return m_y;
+	}
+
+	public float[] getZs() {
+		return m_z;
+	}
+
+	public float[] getRotations() {
+		return m_rotations;
+	}
+
+	public float[] getScales() {
+		return m_scales;
+	}
+
+	public int[] getVersions() {
+		return m_versions;
+	}
+
+	void ensureCapacity(int slot) {
+		if (slot < m_x.length) {
+			return;
+		}
+
+		int capacity = Math.max(slot + 1, m_x.length * 2);
+
+		m_x = grow(m_x, capacity);
+		m_y = grow(m_y, capacity);
+		m_z = grow(m_z, capacity);
+		m_rotations = grow(m_rotations, capacity);
+		m_scales = grow(m_scales, capacity);
+		m_versions = grow(m_versions, capacity);
+		m_previousX = grow(m_previousX, capacity);
+		m_previousY = grow(m_previousY, capacity);
+		m_previousRotations = grow(m_previousRotations, capacity);
+		m_previousScales = grow(m_previousScales, capacity);
+		m_parents = grow(m_parents, capacity);
+		m_firstChildren = grow(m_firstChildren, capacity);
+		m_nextSiblings = grow(m_nextSiblings, capacity);
+		m_localX = grow(m_localX, capacity);
+		m_localY = grow(m_localY, capacity);
+		m_localZ = grow(m_localZ, capacity);
+		m_localRotations = grow(m_localRotations, capacity);
+		m_localScales = grow(m_localScales, capacity);
+		m_changed = grow(m_changed, capacity);
+		m_dirtyBelow = grow(m_dirtyBelow, capacity);
+		m_listed = grow(m_listed, capacity);
+	}
+
+	private void allocate(int capacity) {
+		m_x = new float[capacity];
+		m_y = new float[capacity];
+		m_z = new float[capacity];
+		m_rotations = new float[capacity];
+		m_scales = new float[capacity];
+		m_versions = new int[capacity];
+		m_previousX = new float[capacity];
+		m_previousY = new float[capacity];
+		m_previousRotations = new float[capacity];
+		m_previousScales = new float[capacity];
+		m_parents = new int[capacity];
+		m_firstChildren = new int[capacity];
+		m_nextSiblings = new int[capacity];
+		m_localX = new float[capacity];
+		m_localY = new float[capacity];
+		m_localZ = new float[capacity];
+		m_localRotations = new float[capacity];
+		m_localScales = new float[capacity];
+		m_changed = new boolean[capacity];
+		m_dirtyBelow = new boolean[capacity];
+		m_listed = new boolean[capacity];
+	}
+
+	private static float[] grow(float[] array, int capacity) {
+		float[] grown = new float[capacity];
+		System.arraycopy(array, 0, grown, 0, array.length);
+		return grown;
+	}
+
+	private static int[] grow(int[] array, int capacity) {
+		int[] grown = new int[capacity];
+		System.arraycopy(array, 0, grown, 0, array.length);
+		return grown;
+	}
+
+	private static boolean[] grow(boolean[] array, int capacity) {
+		boolean[] grown = new boolean[capacity];
+		System.arraycopy(array, 0, grown, 0, array.length);
+		return grown;
+	}
+}
@@ -7,10 +7,10 @@ import aurelienribon.tweenengine.equations.Quad;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.physics.box2d.Body;
 import com.badlogic.gdx.physics.box2d.Fixture;
-import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Logger;
 import com.siondream.engine.AnimationComponent;
 import com.siondream.engine.Component;
+import com.siondream.engine.ComponentDescriptor;
 import com.siondream.engine.Entity;
 import com.siondream.engine.EntityTweener;
 import com.siondream.engine.Game;
@@ -24,6 +24,7 @@ public class AmmoController extends Component {
 	// Constants
 	private static final int m_physicsComponentID = IDGenerator.getID("PhysicsComponent");
 	private static final int m_animComponentID = IDGenerator.getID("AnimationComponent");
+	public static final ComponentDescriptor Descriptor = ComponentDescriptor.declare("AmmoController", "PhysicsComponent", "AnimationComponent");
 
 	// System
 	private static final Logger m_logger = Game.getLogger();
@@ -39,9 +40,17 @@ public class AmmoController extends Component {
 	private Fixture m_fixture;
 	private AnimationComponent m_animComponent;
 	
+	public AmmoController() {
+		super("AmmoController", 3);
+	}
+	
 	public AmmoController(Entity entity) {
-		super(entity, "AmmoController", 3);
-		
+		this();
+		attach(entity);
+	}
+	
+	@Override
+	protected void onAttach() {
 		m_entity.addListener(Entity.EntityBatched, this);
 	}
 	
@@ -91,11 +100,4 @@ public class AmmoController extends Component {
 		}
 	}
 
-	@Override
-	public Array<Integer> getDependencies() {
-		Array<Integer> dependencies = new Array<Integer>();
-		dependencies.add(m_physicsComponentID);
-		dependencies.add(m_animComponentID);
-		return dependencies;
-	}
 }
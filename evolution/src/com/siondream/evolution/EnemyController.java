@@ -10,10 +10,10 @@ import com.badlogic.gdx.physics.box2d.PolygonShape;
 import com.badlogic.gdx.physics.box2d.RayCastCallback;
 import com.badlogic.gdx.physics.box2d.Shape;
 import com.badlogic.gdx.physics.box2d.World;
-import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Logger;
 import com.siondream.engine.AnimationComponent;
 import com.siondream.engine.Component;
+import com.siondream.engine.ComponentDescriptor;
 import com.siondream.engine.Entity;
 import com.siondream.engine.EntityManager;
 import com.siondream.engine.Game;
@@ -27,6 +27,7 @@ public class EnemyController extends Component {
 	// Constants
 	private static final int m_physicsComponentID = IDGenerator.getID("PhysicsComponent");
 	private static final int m_animComponentID = IDGenerator.getID("AnimationComponent");
+	public static final ComponentDescriptor Descriptor = ComponentDescriptor.declare("EnemyController", "PhysicsComponent", "AnimationComponent");
 	private static final int m_erase = IDGenerator.getID("erase");
 
 	// System
@@ -34,6 +35,8 @@ public class EnemyController extends Component {
 	private static final Settings m_settings = Game.getSettings();
 	private static final World m_world = Game.getWorld();
 	private final HeightRayCastCallback m_heightRayCastCallback = new HeightRayCastCallback();
+	private final Vector2 m_aheadPosA = new Vector2();
+	private final Vector2 m_aheadPosB = new Vector2();
 	
 	// Settings
 	private final float m_maxSpeed = m_settings.getFloat("enemyMaxSpeedX", 6.0f);
@@ -48,9 +51,17 @@ public class EnemyController extends Component {
 	private boolean m_walkingRight = false;
 	private boolean m_turn = true;
 	
+	public EnemyController() {
+		super("EnemyController", 3);
+	}
+	
 	public EnemyController(Entity entity) {
-		super(entity, "EnemyController", 3);
-		
+		this();
+		attach(entity);
+	}
+	
+	@Override
+	protected void onAttach() {
 		m_entity.addListener(StateGame.BeginContact, this);
 		m_entity.addListener(Entity.EntityBatched, this);
 	}
@@ -63,6 +74,8 @@ public class EnemyController extends Component {
 		m_animComponent = null;
 		m_body = null;
 		m_fixture = null;
+		
+		reset();
 	}
 
 	@Override
@@ -86,10 +99,10 @@ public class EnemyController extends Component {
 		// Check if we're about to fall
 		float offsetX = m_walkingRight? 1.6f : -1.6f;
 		
-		Vector2 aheadPosA = new Vector2(pos.x + offsetX, pos.y);
-		Vector2 aheadPosB = new Vector2(aheadPosA.x, aheadPosA.y + 20.0f);
+		m_aheadPosA.set(pos.x + offsetX, pos.y);
+		m_aheadPosB.set(m_aheadPosA.x, m_aheadPosA.y + 20.0f);
 		m_turn = true;
-		m_world.rayCast(m_heightRayCastCallback, aheadPosA, aheadPosB);
+		m_world.rayCast(m_heightRayCastCallback, m_aheadPosA, m_aheadPosB);
 		
 		if (m_turn) {
 			m_walkingRight = !m_walkingRight;
@@ -147,14 +160,6 @@ public class EnemyController extends Component {
 		}
 	}
 
-	@Override
-	public Array<Integer> getDependencies() {
-		Array<Integer> dependencies = new Array<Integer>();
-		dependencies.add(m_physicsComponentID);
-		dependencies.add(m_animComponentID);
-		return dependencies;
-	}
-	
 	private void beginContact(Contact contact) {
 		Fixture fixA = contact.getFixtureA();
 		Fixture fixB = contact.getFixtureB();
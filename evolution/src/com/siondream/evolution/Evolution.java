@@ -1,13 +1,78 @@
 package com.siondream.evolution;
 
+import com.badlogic.gdx.utils.XmlReader.Element;
+import com.siondream.engine.Component;
+import com.siondream.engine.ComponentFactory;
+import com.siondream.engine.ComponentPool;
+import com.siondream.engine.ComponentPools;
+import com.siondream.engine.Entity;
 import com.siondream.engine.Game;
+import com.siondream.engine.IDGenerator;
+import com.siondream.engine.PrefabManager;
 
 public class Evolution extends Game {
 	@Override
 	public void create() {	
 		super.create();
 		
+		// Game components available to prefabs
+		PrefabManager prefabManager = m_entityManager.getPrefabManager();
+		int poolSize = m_settings.getInt("componentPoolSize", 50);
+		
+		ComponentPools.register(EnemyController.class, new ComponentPool<EnemyController>(poolSize) {
+			@Override
+			protected EnemyController create() {
+				return new EnemyController();
+			}
+		});
+		
+		ComponentPools.register(AmmoController.class, new ComponentPool<AmmoController>(poolSize) {
+			@Override
+			protected AmmoController create() {
+				return new AmmoController();
+			}
+		});
+		
+		ComponentPools.register(ItemController.class, new ComponentPool<ItemController>(poolSize) {
+			@Override
+			protected ItemController create() {
+				return new ItemController();
+			}
+		});
+		
+		prefabManager.registerFactory("EnemyController", new ComponentFactory() {
+			@Override
+			public Component create(Entity entity, Element definition) {
+				EnemyController component = ComponentPools.obtain(EnemyController.class);
+				component.attach(entity);
+				return component;
+			}
+		});
+		
+		prefabManager.registerFactory("AmmoController", new ComponentFactory() {
+			@Override
+			public Component create(Entity entity, Element definition) {
+				AmmoController component = ComponentPools.obtain(AmmoController.class);
+				component.attach(entity);
+				return component;
+			}
+		});
+		
+		prefabManager.registerFactory("ItemController", new ComponentFactory() {
+			@Override
+			public Component create(Entity entity, Element definition) {
+				ItemController component = ComponentPools.obtain(ItemController.class);
+				component.attach(entity);
+				return component;
+			}
+		});
+		
+		prefabManager.load("data/prefabs.xml");
+		
 		m_stateManager.setStateFactory(new StateFactoryImpl());
 		m_stateManager.pushState("StateMenu");
+		
+		// States have interned their ids by now, stop locking on lookups
+		IDGenerator.freeze();
 	}
 }
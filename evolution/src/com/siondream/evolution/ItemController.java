@@ -2,7 +2,6 @@ package com.siondream.evolution;
 
 import com.badlogic.gdx.physics.box2d.Body;
 import com.badlogic.gdx.physics.box2d.World;
-import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Logger;
 import com.siondream.engine.AnimationComponent;
 import com.siondream.engine.Component;
@@ -26,9 +25,17 @@ public class ItemController extends Component {
 	// State
 	private float m_lifeCounter;
 	
+	public ItemController() {
+		super("ItemControllerComponent", 3);
+	}
+	
 	public ItemController(Entity entity) {
-		super(entity, "ItemControllerComponent", 3);
-		
+		this();
+		attach(entity);
+	}
+	
+	@Override
+	protected void onAttach() {
 		m_entity.addListener(StateGame.BeginContact, this);
 		m_entity.addListener(StateGame.EndContact, this);
 		
@@ -45,7 +52,6 @@ public class ItemController extends Component {
 
 	@Override
 	public void update(float deltaT) {
-		m_logger.error("ItemController: update");
 		if (m_lifeCounter < 0.0f) {
 			m_entity.setState(m_erase);
 		}
@@ -63,11 +69,6 @@ public class ItemController extends Component {
 		
 	}
 
-	@Override
-	public Array<Integer> getDependencies() {
-		return new Array<Integer>();
-	}
-	
 	@Override
 	public void fetchAssets() {
 	}
@@ -13,12 +13,13 @@ import com.badlogic.gdx.physics.box2d.ContactListener;
 import com.badlogic.gdx.physics.box2d.Fixture;
 import com.badlogic.gdx.physics.box2d.Manifold;
 import com.badlogic.gdx.physics.box2d.World;
-import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Logger;
 import com.siondream.engine.AnimationComponent;
 import com.siondream.engine.Component;
+import com.siondream.engine.ComponentDescriptor;
 import com.siondream.engine.Entity;
 import com.siondream.engine.EntityManager;
+import com.siondream.engine.FixtureTag;
 import com.siondream.engine.Game;
 import com.siondream.engine.IDGenerator;
 import com.siondream.engine.PhysicsComponent;
@@ -31,11 +32,13 @@ public class PlayerController extends Component {
 	// Constants
 	private static final int m_physicsComponentID = IDGenerator.getID("PhysicsComponent");
 	private static final int m_animComponentID = IDGenerator.getID("AnimationComponent");
+	public static final ComponentDescriptor Descriptor = ComponentDescriptor.declare("PlayerController", "PhysicsComponent", "AnimationComponent");
 	private static final int m_idle = IDGenerator.getID("idle");
 	private static final int m_walk = IDGenerator.getID("walk");
 	private static final int m_jump = IDGenerator.getID("jump");
 	private static final int m_erase = IDGenerator.getID("erase");
 	private static final int m_footID = IDGenerator.getID("foot");
+	private static final int m_rockPrefab = IDGenerator.getID("rock");
 	
 	// System
 	private static final Logger m_logger = Game.getLogger();
@@ -74,9 +77,17 @@ public class PlayerController extends Component {
 	private Sound m_landSFX;
 
 	
+	public PlayerController() {
+		super("PlayerController", 3);
+	}
+	
 	public PlayerController(Entity entity) {
-		super(entity, "PlayerController", 3);
-		
+		this();
+		attach(entity);
+	}
+	
+	@Override
+	protected void onAttach() {
 		m_entity.addListener(Entity.EntityBatched, this);
 		m_entity.addListener(StateGame.BeginContact, this);
 		m_entity.addListener(StateGame.EndContact, this);
@@ -215,14 +226,6 @@ public class PlayerController extends Component {
 		}
 	}
 
-	@Override
-	public Array<Integer> getDependencies() {
-		Array<Integer> dependencies = new Array<Integer>();
-		dependencies.add(m_physicsComponentID);
-		dependencies.add(m_animComponentID);
-		return dependencies;
-	}
-	
 	@Override
 	public void fetchAssets() {
 		m_body = ((PhysicsComponent)m_entity.getComponent(m_physicsComponentID)).getBody();
@@ -255,13 +258,13 @@ public class PlayerController extends Component {
 		Body otherBody = null;
 		Object foot = null;
 		
-		if (dataA != null && (Integer)(dataA) == m_footID) {
+		if (FixtureTag.is(dataA, m_footID)) {
 			other = bodyDataB;
 			otherFixture = fixB;
 			otherBody = bodyB;
 			foot = bodyDataA;
 		}
-		else if (dataB != null && (Integer)(dataB) == m_footID) {
+		else if (FixtureTag.is(dataB, m_footID)) {
 			other = bodyDataA;
 			otherFixture = fixA;
 			otherBody = bodyA;
@@ -327,12 +330,12 @@ public class PlayerController extends Component {
 		Body otherBody = null;
 		Object foot = null;
 		
-		if (dataA != null && (Integer)(dataA) == m_footID) {
+		if (FixtureTag.is(dataA, m_footID)) {
 			otherFixture = fixB;
 			otherBody = bodyB;
 			foot = bodyDataA;
 		}
-		else if (dataB != null && (Integer)(dataB) == m_footID) {
+		else if (FixtureTag.is(dataB, m_footID)) {
 			otherFixture = fixA;
 			otherBody = bodyA;
 			foot = bodyDataB;
@@ -348,45 +351,31 @@ public class PlayerController extends Component {
 	
 	public void throwItem() {
 		if (m_ammo > 0 && m_throwCounter < 0) {
-			// Create entity
-			Entity item = m_entityManager.obtain();
-			item.setType(StateGame.Item);
-			PhysicsComponent physics = new PhysicsComponent(item, "data/rock_physics.xml");
-			item.addComponent(new AnimationComponent(item, "data/rock.xml"));
-			item.addComponent(physics);
-			//item.addComponent(new ItemController(item));
-			item.batch();
-			item.fetchAssets();
-			
 			boolean flipX = m_animComponent.getFlipX();
 			Vector2 entityPos = m_entity.getPosition2D();
 			
-			if (entityPos == null) {
-				m_logger.error("ENTITY POS NULL");
-			}
-			
-			// Set offset position
-			item.onMessage(null, PhysicsComponent.DisablePhysics, null);
-			item.setPosition(flipX? entityPos.x - m_throwOffset.x : entityPos.x + m_throwOffset.x,
-						     entityPos.y + m_throwOffset.y,
-						     9.0f);
-			item.onMessage(null, PhysicsComponent.EnablePhysics, null);
+			// Spawn at offset position
+			Entity item = m_entityManager.spawn(m_rockPrefab,
+												flipX? entityPos.x - m_throwOffset.x : entityPos.x + m_throwOffset.x,
+												entityPos.y + m_throwOffset.y,
+												9.0f);
 			
-			// State
-			item.setState(IDGenerator.getID("idle"));
+			if (item == null) {
+				return;
+			}
 			
 			// Apply impulses
-			if (physics.getBody() != null) {
-				physics.getBody().applyAngularImpulse(m_throwAngular);
+			Body body = ((PhysicsComponent)item.getComponent(m_physicsComponentID)).getBody();
+			
+			if (body != null) {
+				body.applyAngularImpulse(m_throwAngular);
 				
-				physics.getBody().applyLinearImpulse(flipX? -m_throwLinear.x + m_body.getLinearVelocity().x * 0.2f : m_throwLinear.x + m_body.getLinearVelocity().x * 0.2f,
-													 m_throwLinear.y,
-													 0.0f,
-													 0.0f);
+				body.applyLinearImpulse(flipX? -m_throwLinear.x + m_body.getLinearVelocity().x * 0.2f : m_throwLinear.x + m_body.getLinearVelocity().x * 0.2f,
+										m_throwLinear.y,
+										0.0f,
+										0.0f);
 			}
-			
-			StateGame.m_items.add(item);
-			
+
 			
 			// Reset counter
 			m_throwCounter = m_throwTime;
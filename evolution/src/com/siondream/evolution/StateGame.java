@@ -1,7 +1,6 @@
 package com.siondream.evolution;
 
 
-import aurelienribon.tweenengine.Tween;
 import aurelienribon.tweenengine.equations.Quad;
 
 import com.badlogic.gdx.Gdx;
@@ -28,8 +27,9 @@ import com.badlogic.gdx.physics.box2d.World;
 import com.badlogic.gdx.utils.Array;
 import com.siondream.engine.AnimationComponent;
 import com.siondream.engine.AnimationData;
-import com.siondream.engine.CameraTweener;
 import com.siondream.engine.Entity;
+import com.siondream.engine.FixtureTag;
+import com.siondream.engine.FrameProfiler;
 import com.siondream.engine.Game;
 import com.siondream.engine.IDGenerator;
 import com.siondream.engine.PhysicsComponent;
@@ -63,9 +63,12 @@ public class StateGame extends State implements ContactListener {
 	public static final int Ammo = IDGenerator.getID("ammo");
 	
 	// States
-	private final int m_erase = IDGenerator.getID("erase");
 	private final int m_playerControllerID = IDGenerator.getID("PlayerController");
 	
+	// Prefabs
+	private final int m_enemyPrefab = IDGenerator.getID("enemy");
+	private final int m_ammoPrefab = IDGenerator.getID("ammo");
+	
 	// System
 	private static OrthographicCamera m_camera = Game.getCamera();
 	private static World m_world = Game.getWorld();
@@ -81,6 +84,7 @@ public class StateGame extends State implements ContactListener {
 	
 	// Data
 	private State m_state;
+	private State m_renderState;
 	private TiledMap m_map;
 	private Entity m_caveman;
 	private TextureRegion m_levelStart;
@@ -88,18 +92,17 @@ public class StateGame extends State implements ContactListener {
 	private TextureRegion m_gameOver;
 	private TextureRegion m_ammoHUD;
 	private BitmapFont m_HUDFont;
+	private StringBuilder m_ammoText = new StringBuilder();
+	private int m_ammoShown = -1;
 	private float m_titleCounter = m_titleTime;
 	private Array<Body> m_bodies = new Array<Body>();
 	private Music m_music;
 	
-	private Array<Entity> m_enemies = new Array<Entity>();
-	public static Array<Entity> m_items = new Array<Entity>();
-	public Array<Entity> m_ammos = new Array<Entity>();
-	
 	
 	public StateGame() {
 		super("StateGame");
 		m_state = State.Loading;
+		m_renderState = m_state;
 		
 		m_world.setContactListener(this);
 	}
@@ -162,16 +165,12 @@ public class StateGame extends State implements ContactListener {
 		m_ammoHUD = null;
 		
 		// Delete entities
-		m_entityManager.free(m_enemies);
-		m_entityManager.free(m_items);
-		m_entityManager.free(m_ammos);
+		m_entityManager.freeWithType(Enemy);
+		m_entityManager.freeWithType(Item);
+		m_entityManager.freeWithType(Ammo);
 		m_entityManager.clear();
 		m_caveman = null;
 		
-		m_enemies.clear();
-		m_items.clear();
-		m_ammos.clear();
-		
 		deleteAllBodies();
 	}
 	
@@ -200,6 +199,7 @@ public class StateGame extends State implements ContactListener {
 		
 		loadLevelBodies();
 		loadLevelEvents();
+		m_entityManager.getPrefabManager().prepare();
 		createEnemies();
 		createAmmo();
 		
@@ -238,12 +238,51 @@ public class StateGame extends State implements ContactListener {
 		}
 	}
 	
+	// Loading and resetting touch assets, only gameplay leaves the GL thread
+	@Override
+	public boolean allowsSimulationThread() {
+		return m_state == State.Running;
+	}
+	
+	@Override
+	public void publish() {
+		m_renderState = m_state;
+		
+		if (m_renderState == State.Running) {
+			updateAmmoText();
+		}
+	}
+	
+	@Override
+	public void render() {
+		switch (m_renderState) {
+		case LevelStart:
+			renderTitle(m_levelStart);
+			break;
+		case LevelCompleted:
+			renderTitle(m_levelCompleted);
+			break;
+		case GameOver:
+			renderTitle(m_gameOver);
+			break;
+		case Running:
+			renderRunning();
+			break;
+		default:
+			break;
+		}
+	}
+	
 	public void updateLoading(float deltaT) {
+		m_profiler.begin(FrameProfiler.Assets);
+		
 		if (m_assetManager.update()) {
 			finishLoading();
 			m_state = State.LevelStart;
 			m_logger.info("StateMenu: finished loading");
 		}
+		
+		m_profiler.end(FrameProfiler.Assets);
 	}
 	
 	public void updateLevelStart(float deltaT) {
@@ -253,14 +292,6 @@ public class StateGame extends State implements ContactListener {
 			m_state = State.Running;
 			m_titleCounter = m_titleTime;
 		}
-		
-		m_map.draw();
-		
-		m_HUDBatch.begin();
-		m_HUDBatch.draw(m_levelStart,
-						(Game.getVirtualWidth() - m_levelStart.getRegionWidth()) * 0.5f,
-						(Game.getVirtualHeight() + m_levelStart.getRegionHeight()) * 0.5f);
-		m_HUDBatch.end();
 	}
 	
 	public void updateLevelCompleted(float deltaT) {
@@ -270,14 +301,6 @@ public class StateGame extends State implements ContactListener {
 			m_stateManager.changeState("StateMenu");
 			m_titleCounter = m_titleTime;
 		}
-		
-		m_map.draw();
-		
-		m_HUDBatch.begin();
-		m_HUDBatch.draw(m_levelCompleted,
-						(Game.getVirtualWidth() - m_levelCompleted.getRegionWidth()) * 0.5f,
-						(Game.getVirtualHeight() + m_levelCompleted.getRegionHeight()) * 0.5f);
-		m_HUDBatch.end();
 	}
 	
 	public void updateGameOver(float deltaT) {
@@ -287,79 +310,69 @@ public class StateGame extends State implements ContactListener {
 			m_state = State.ResetLevel;
 			m_titleCounter = m_titleTime;
 		}
-		
-		m_map.draw();
-		
-		m_HUDBatch.begin();
-		m_HUDBatch.draw(m_gameOver,
-						(Game.getVirtualWidth() - m_gameOver.getRegionWidth()) * 0.5f,
-						(Game.getVirtualHeight() + m_gameOver.getRegionHeight()) * 0.5f);
-		m_HUDBatch.end();
 	}
 	
 	public void updateRunning(float deltaT) {
-		updateCamera();
+		updateCamera(deltaT);
 		
 		// Throw object
 		if (Gdx.input.isKeyPressed(Keys.SPACE)) {
-			PlayerController controller = (PlayerController)m_caveman.getComponent(IDGenerator.getID("PlayerController"));
+			PlayerController controller = (PlayerController)m_caveman.getComponent(m_playerControllerID);
 			controller.throwItem();
 		}
 		
+		m_entityManager.update(deltaT);
+	}
+	
+	public void updateResetLevel(float deltaT) {
+		resetLevel();
+	}
+	
+	public void renderTitle(TextureRegion title) {
+		m_profiler.begin(FrameProfiler.Map);
+		m_map.draw();
+		m_profiler.end(FrameProfiler.Map);
+		
+		m_profiler.begin(FrameProfiler.HUD);
+		m_HUDBatch.begin();
+		m_HUDBatch.draw(title,
+						(Game.getVirtualWidth() - title.getRegionWidth()) * 0.5f,
+						(Game.getVirtualHeight() + title.getRegionHeight()) * 0.5f);
+		m_HUDBatch.end();
+		m_profiler.end(FrameProfiler.HUD);
+	}
+	
+	public void renderRunning() {
+		m_profiler.begin(FrameProfiler.Map);
 		m_map.draw();
+		m_profiler.end(FrameProfiler.Map);
+		
 		m_batch.begin();
-		m_entityManager.update(deltaT);
+		m_entityManager.render();
 		m_batch.end();
 		
+		m_profiler.begin(FrameProfiler.HUD);
 		m_HUDBatch.begin();
 		m_HUDBatch.draw(m_ammoHUD, m_ammoHUDPos.x, m_ammoHUDPos.y);
 		m_HUDFont.draw(m_HUDBatch,
-					   "x  " + ((PlayerController)m_caveman.getComponent(m_playerControllerID)).getAmmo(),
+					   m_ammoText,
 					   m_ammoHUDTextPos.x,
 					   m_ammoHUDTextPos.y);
 		m_HUDBatch.end();
-		
-		for (int i = 0; i < m_enemies.size;) {
-			Entity enemy = m_enemies.get(i);
-			
-			if (enemy.getState() == m_erase) {
-				m_entityManager.free(enemy);
-				m_enemies.removeIndex(i);
-			}
-			else {
-				++i;
-			}
-		}
-		
-		for (int i = 0; i < m_items.size;) {
-			Entity item = m_items.get(i);
-			
-			if (item.getState() == m_erase) {
-				m_entityManager.free(item);
-				m_items.removeIndex(i);
-			}
-			else {
-				++i;
-			}
-		}
-		
-		for (int i = 0; i < m_ammos.size;) {
-			Entity ammo = m_ammos.get(i);
-			
-			if (ammo.getState() == m_erase) {
-				m_entityManager.free(ammo);
-				m_ammos.removeIndex(i);
-			}
-			else {
-				++i;
-			}
+		m_profiler.end(FrameProfiler.HUD);
+	}
+
+	// Only rebuilt when the ammo count changes
+	private void updateAmmoText() {
+		int ammo = ((PlayerController)m_caveman.getComponent(m_playerControllerID)).getAmmo();
+		
+		if (ammo != m_ammoShown) {
+			m_ammoShown = ammo;
+			m_ammoText.setLength(0);
+			m_ammoText.append("x  ").append(ammo);
 		}
 	}
 	
-	public void updateResetLevel(float deltaT) {
-		resetLevel();
-	}
-
 	private void loadLevelBodies() {
 		TiledObjectGroup group = m_map.getGroup("Collisions");
 		
@@ -396,7 +409,7 @@ public class StateGame extends State implements ContactListener {
 			TiledObject object = objects.get(i);
 			Body body = m_world.createBody(bodyDef);
 			m_bodies.add(body);
-			body.setUserData(IDGenerator.getID(object.getName()));
+			body.setUserData(FixtureTag.get(IDGenerator.getID(object.getName())));
 			body.setTransform(object.getPosition().cpy().mul(Game.mpp), 0.0f);
 			fixtureDef.shape = object.getPolygon();
 			body.createFixture(fixtureDef);
@@ -414,8 +427,7 @@ public class StateGame extends State implements ContactListener {
 		boolean caveman = (dataA != null && dataA instanceof Entity && ((Entity)dataA).getType() == StateGame.Caveman) ||
 						  (dataB != null && dataB instanceof Entity && ((Entity)dataB).getType() == StateGame.Caveman);
 		
-		boolean isLevelFinish = (dataA != null && dataA instanceof Integer && ((Integer)dataA) == StateGame.LevelFinished) ||
-							    (dataB != null && dataB instanceof Integer && ((Integer)dataB) == StateGame.LevelFinished);
+		boolean isLevelFinish = FixtureTag.is(dataA, StateGame.LevelFinished) || FixtureTag.is(dataB, StateGame.LevelFinished);
 		
 		if (caveman && isLevelFinish) {
 			m_state = State.LevelCompleted;
@@ -423,8 +435,7 @@ public class StateGame extends State implements ContactListener {
 			return;
 		}
 		
-		boolean isFall = (dataA != null && dataA instanceof Integer && ((Integer)dataA) == StateGame.Fall) ||
-			    		 (dataB != null && dataB instanceof Integer && ((Integer)dataB) == StateGame.Fall);
+		boolean isFall = FixtureTag.is(dataA, StateGame.Fall) || FixtureTag.is(dataB, StateGame.Fall);
 		
 		if (caveman && isFall) {
 			m_state = State.GameOver;
@@ -432,12 +443,15 @@ public class StateGame extends State implements ContactListener {
 			return;
 		}
 		
-		if (dataA != null && dataA instanceof Entity) {
-			((Entity)dataA).onMessage(null, BeginContact, contact);
+		Entity entityA = getEntity(dataA);
+		Entity entityB = getEntity(dataB);
+		
+		if (entityA != null) {
+			entityA.onMessage(null, BeginContact, contact);
 		}
 		
-		if (dataB != null && dataB instanceof Entity) {
-			((Entity)dataB).onMessage(null, BeginContact, contact);
+		if (entityB != null) {
+			entityB.onMessage(null, BeginContact, contact);
 		}
 	}
 
@@ -448,12 +462,15 @@ public class StateGame extends State implements ContactListener {
 		Object dataA = fixA.getBody().getUserData();
 		Object dataB = fixB.getBody().getUserData();
 		
-		if (dataA instanceof Entity) {
-			((Entity)dataA).onMessage(null, EndContact, contact);
+		Entity entityA = getEntity(dataA);
+		Entity entityB = getEntity(dataB);
+		
+		if (entityA != null) {
+			entityA.onMessage(null, EndContact, contact);
 		}
 		
-		if (dataB instanceof Entity) {
-			((Entity)dataB).onMessage(null, EndContact, contact);
+		if (entityB != null) {
+			entityB.onMessage(null, EndContact, contact);
 		}
 	}
 
@@ -473,22 +490,8 @@ public class StateGame extends State implements ContactListener {
 		Array<TiledObject> objects = m_map.getGroup("Enemies").getObjectsByName("enemy");
 		
 		for (int i = 0; i < objects.size; ++i) {
-			Entity enemy = m_entityManager.obtain();
-			enemy.setType(Enemy);
-			enemy.addComponent(new AnimationComponent(enemy, "data/enemy.xml"));
-			enemy.addComponent(new PhysicsComponent(enemy, "data/enemy_physics.xml"));
-			enemy.addComponent(new EnemyController(enemy));
-			enemy.batch();
-			enemy.fetchAssets();
-
-			
-			enemy.onMessage(null, PhysicsComponent.DisablePhysics, null);
 			Vector2 enemyPos = objects.get(i).getPosition();
-			enemy.setPosition(enemyPos.x * Game.mpp, enemyPos.y * Game.mpp, 12.0f);
-			enemy.setState(IDGenerator.getID("walk"));
-			enemy.onMessage(null, PhysicsComponent.EnablePhysics, null);
-			
-			m_enemies.add(enemy);
+			m_entityManager.spawn(m_enemyPrefab, enemyPos.x * Game.mpp, enemyPos.y * Game.mpp, 12.0f);
 		}
 	}
 	
@@ -496,22 +499,8 @@ public class StateGame extends State implements ContactListener {
 		Array<TiledObject> objects = m_map.getGroup("Objects").getObjectsByName("ammo");
 		
 		for (int i = 0; i < objects.size; ++i) {
-			Entity ammo = m_entityManager.obtain();
-			ammo.setType(Ammo);
-			ammo.addComponent(new AnimationComponent(ammo, "data/ammo.xml"));
-			ammo.addComponent(new PhysicsComponent(ammo, "data/ammo_physics.xml"));
-			ammo.addComponent(new AmmoController(ammo));
-			ammo.batch();
-			ammo.fetchAssets();
-			
-			
-			ammo.onMessage(null, PhysicsComponent.DisablePhysics, null);
 			Vector2 ammoPos = objects.get(i).getPosition();
-			ammo.setPosition(ammoPos.x * Game.mpp, ammoPos.y * Game.mpp, 5.0f);
-			ammo.onMessage(null, PhysicsComponent.EnablePhysics, null);
-			ammo.reset();
-			
-			m_ammos.add(ammo);
+			m_entityManager.spawn(m_ammoPrefab, ammoPos.x * Game.mpp, ammoPos.y * Game.mpp, 5.0f);
 		}
 	}
 	
@@ -540,15 +529,7 @@ public class StateGame extends State implements ContactListener {
 //		createAmmo();
 	}
 	
-	public void updateCamera() {
-		Vector2 cavemanPos = new Vector2();
-		cavemanPos.x = m_caveman.getPosition().x;
-		cavemanPos.y = m_caveman.getPosition().y;
-		
-		Vector2 cameraPos = new Vector2();
-		cameraPos.x = cameraPos.x;
-		cameraPos.y = cameraPos.y;
-		
+	public void updateCamera(float deltaT) {
 		float camWidth = Game.getVirtualWidth() * Game.mpp;
 		float camHeight = Game.getVirtualHeight() * Game.mpp;
 		float mapWidth = m_map.getWidth() * m_map.getTileWidth() * Game.mpp;
@@ -557,26 +538,15 @@ public class StateGame extends State implements ContactListener {
 		float maxX = mapWidth - camWidth * 0.5f;
 		float maxY = mapHeight - camHeight * 0.5f;
 		
-	
-		Vector3 destPos = new Vector3();
-		
 		// Check map bounds
-		destPos.x = Math.max(Math.min(cavemanPos.x, maxX), camWidth * 0.5f);
-		
-		if (Gdx.input.isKeyPressed(Keys.DOWN)) {
-			destPos.y = Math.max(Math.min(cavemanPos.y + m_cameraOffsetY + 5.0f, maxY), camHeight * 0.5f);
-		}
-		else {
-			destPos.y = Math.max(Math.min(cavemanPos.y + m_cameraOffsetY, maxY), camHeight * 0.5f);
-		}
-		
-		
-		destPos.z = m_camera.position.z;
-		
-		Tween.to(m_camera, CameraTweener.Position, m_cameraTweenTime).
-			  ease(Quad.IN).
-			  target(destPos.x, destPos.y, destPos.z).
-			  start(m_tweenManager);
+		float offsetY = Gdx.input.isKeyPressed(Keys.DOWN)? m_cameraOffsetY + 5.0f : m_cameraOffsetY;
+		float destX = Math.max(Math.min(m_caveman.getX(), maxX), camWidth * 0.5f);
+		float destY = Math.max(Math.min(m_caveman.getY() + offsetY, maxY), camHeight * 0.5f);
+		
+		// Same curve as the Quad.IN tween this used to restart every frame, only its first step ever showed
+		float blend = Quad.IN.compute(Math.min(deltaT / m_cameraTweenTime, 1.0f));
+		m_camera.position.x += (destX - m_camera.position.x) * blend;
+		m_camera.position.y += (destY - m_camera.position.y) * blend;
 	}
 	
 	@Override
@@ -594,6 +564,15 @@ public class StateGame extends State implements ContactListener {
 		return true;
 	}
 	
+	// Body user data may still point to an entity that has already been freed
+	private Entity getEntity(Object userData) {
+		if (userData instanceof Entity && m_entityManager.isActive((Entity)userData)) {
+			return (Entity)userData;
+		}
+		
+		return null;
+	}
+	
 	private void deleteAllBodies() {
 		for (int i = 0; i < m_bodies.size; ++i) {
 			m_world.destroyBody(m_bodies.get(i));
@@ -6,6 +6,7 @@ import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.siondream.engine.AnimationComponent;
 import com.siondream.engine.AnimationData;
+import com.siondream.engine.FrameProfiler;
 import com.siondream.engine.Game;
 import com.siondream.engine.PhysicsComponent;
 import com.siondream.engine.PhysicsData;
@@ -69,16 +70,25 @@ public class StateMenu extends State {
 	@Override
 	public void update(float deltaT) {
 		if (m_state == State.Loading) {
+			m_profiler.begin(FrameProfiler.Assets);
 			
 			if (m_assetManager.update()) {
 				finishLoading();
 				m_state = State.Running;
 			}
 			
+			m_profiler.end(FrameProfiler.Assets);
 			return;
 		}
 		
 		m_menuTime -= deltaT;
+	}
+	
+	@Override
+	public void render() {
+		if (m_state == State.Loading) {
+			return;
+		}
 		
 		m_batch.begin();
 		m_batch.draw(m_background, 0.0f, 0.0f);